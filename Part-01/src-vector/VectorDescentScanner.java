@@ -0,0 +1,153 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * <p>
+ * A {@link DescentScanner} comparing blocks of neighbours with SIMD
+ * instructions through the Vector API of module jdk.incubator.vector. A block
+ * of elements d[k...k + L - 1] is loaded into one vector and the block shifted
+ * by one element, d[k + 1...k + L], into another, where L is the number of int
+ * lanes of the preferred species of the platform (8 with AVX2, 16 with
+ * AVX-512, 4 with NEON). A single lane wise comparison then yields the
+ * descents, or the ascents, of L pairs as a mask.
+ * </p>
+ * <p>
+ * In a nearly sorted array most blocks have no descent, so the main loop only
+ * tests whether the descent mask has any bit set, and reads the bits of the
+ * rare blocks with descents to update the first and the last descent and the
+ * number of descents. The ascents are then found by searches which stop at
+ * the first block with an ascent: the first ascent from the left, the last
+ * ascent from the right and any ascent between the first and the last
+ * descent. The pairs after the last whole block are compared one by one.
+ * </p>
+ * <p>
+ * This class can only be compiled and loaded with the option --add-modules
+ * jdk.incubator.vector, so it is kept apart in folder src-vector, which is
+ * compiled together with folder src when the option is given. It is loaded by
+ * {@link DescentSummary} through reflection, which falls back to the scalar
+ * loop if the class is missing or loading fails.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see DescentSummary
+ * @see <a href=
+ *      "https://docs.oracle.com/en/java/javase/17/docs/api/jdk.incubator.vector/jdk/incubator/vector/IntVector.html">jdk.incubator.vector.IntVector</a>
+ */
+final class VectorDescentScanner implements DescentScanner {
+
+	/**
+	 * The preferred species of int vectors of the platform
+	 */
+	private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+	/**
+	 * Default constructor, called through reflection
+	 */
+	VectorDescentScanner() {
+	}
+
+	@Override
+	public DescentSummary scan(int[] a, int from, int to) {
+		int first = -1;
+		int last = -1;
+		int count = 0;
+
+		int lanes = SPECIES.length();
+		int k = from;
+
+		// Each block needs the element after its last lane
+		for (; k + lanes < to; k += lanes) {
+			IntVector left = IntVector.fromArray(SPECIES, a, k);
+			IntVector right = IntVector.fromArray(SPECIES, a, k + 1);
+
+			VectorMask<Integer> descents = left.compare(VectorOperators.GT, right);
+			if (descents.anyTrue()) {
+				long bits = descents.toLong();
+
+				if (first < 0)
+					first = k + Long.numberOfTrailingZeros(bits);
+				last = k + 63 - Long.numberOfLeadingZeros(bits);
+				count += Long.bitCount(bits);
+			}
+		}
+
+		// The remaining pairs, fewer than a block
+		for (; k + 1 < to; k++)
+			if (a[k] > a[k + 1]) {
+				if (first < 0)
+					first = k;
+				last = k;
+				count++;
+			}
+
+		int firstAscent = nextAscent(a, from, to);
+		int lastAscent = (firstAscent < 0) ? -1 : previousAscent(a, firstAscent, to);
+		boolean broken = first >= 0 && firstAscent >= 0 && nextAscent(a, Math.max(first, firstAscent), last + 1) >= 0;
+
+		return new DescentSummary(first, last, count, firstAscent, lastAscent, broken);
+	}
+
+	/**
+	 * Returns the first ascent of the elements from index from to index to,
+	 * exclusive
+	 *
+	 * @param a
+	 *            The array
+	 * @param from
+	 *            Index of the first element
+	 * @param to
+	 *            Index after the last element
+	 * @return Index of the ascent, or -1 if there is none
+	 */
+	private static int nextAscent(int[] a, int from, int to) {
+		int lanes = SPECIES.length();
+		int k = from;
+
+		for (; k + lanes < to; k += lanes) {
+			VectorMask<Integer> ascents = IntVector.fromArray(SPECIES, a, k).compare(VectorOperators.LT,
+					IntVector.fromArray(SPECIES, a, k + 1));
+			if (ascents.anyTrue())
+				return k + ascents.firstTrue();
+		}
+
+		for (; k + 1 < to; k++)
+			if (a[k] < a[k + 1])
+				return k;
+
+		return -1;
+	}
+
+	/**
+	 * Returns the last ascent of the elements from index from to index to,
+	 * exclusive
+	 *
+	 * @param a
+	 *            The array
+	 * @param from
+	 *            Index of the first element
+	 * @param to
+	 *            Index after the last element
+	 * @return Index of the ascent, or -1 if there is none
+	 */
+	private static int previousAscent(int[] a, int from, int to) {
+		int lanes = SPECIES.length();
+		int k = to - 1 - lanes;
+
+		for (; k >= from; k -= lanes) {
+			VectorMask<Integer> ascents = IntVector.fromArray(SPECIES, a, k).compare(VectorOperators.LT,
+					IntVector.fromArray(SPECIES, a, k + 1));
+			if (ascents.anyTrue())
+				return k + ascents.lastTrue();
+		}
+
+		// The remaining pairs at the start, fewer than a block
+		for (k += lanes - 1; k >= from; k--)
+			if (a[k] < a[k + 1])
+				return k;
+
+		return -1;
+	}
+}
@@ -1,5 +1,9 @@
-import java.util.InputMismatchException;
-import java.util.Scanner;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * <p>
@@ -42,19 +46,40 @@ import java.util.Scanner;
  * </p>
  * <p>
  * The class has both instance methods and a main method. At runtime, it prompts
- * to enter the size of the array followed by the array elements in a line
- * separated by space. In the next step, an object of this class is created by
- * passing the array reference to the constructor. Then it calls the
- * {@link #analyzeArray()} method to begin analyze and figure out the
- * possibility of sorting the array as described in the problem statement.
+ * to enter the size of the array followed by the array elements separated by
+ * whitespace, which are parsed by an {@link IntReader}. In the next step, an
+ * object of this class is created by passing the array reference to the
+ * constructor. Then it calls the {@link #analyzeArray()} method to begin
+ * analyze and figure out the possibility of sorting the array as described in
+ * the problem statement.
+ * </p>
+ * <p>
+ * Large arrays are scanned in parallel on a ForkJoinPool, see
+ * {@link #setParallelism(int)} and {@link #setSequentialCutoff(int)}.
+ * </p>
+ * <p>
+ * Arrays which do not fit in the heap, such as files of binary integers, can
+ * be analyzed in the same manner by {@link MappedArraySort}.
+ * </p>
+ * <p>
+ * The verdict is also used by {@link #sort(int[])}, which sorts an array in
+ * linear time when a single swap or reversal is enough.
+ * </p>
+ * <p>
+ * Arrays of other types are analyzed by the objects returned by the factory
+ * methods of {@link SortAnalysis}, which this class implements for arrays of
+ * int.
  * </p>
  * 
  * @author murali
  * @version 1.0
- * @see <a href=
- *      "https://docs.oracle.com/javase/7/docs/api/java/util/Scanner.html">java.util.Scanner</a>
+ * @see ArraySortAnalyzer
+ * @see DescentSummary
+ * @see DescentTask
+ * @see SortAnalysis
+ * @see IntReader
  */
-public class ArraySort {
+public class ArraySort implements SortAnalysis {
 
 	/**
 	 * Sort method constant to indicate that the array is already sorted
@@ -80,39 +105,59 @@ public class ArraySort {
 	public static final int NOT_POSSIBLE = 3;
 
 	/**
-	 * The original array
+	 * Default value of {@link #sequentialCutoff}
 	 */
-	private int[] numArray;
+	public static final int DEFAULT_SEQUENTIAL_CUTOFF = 1 << 22;
 
 	/**
-	 * Clone of the original array
+	 * Minimum number of elements scanned by a single task in parallel mode
 	 */
-	private int[] clonedArray;
+	private static final int MIN_LEAF_SIZE = 1 << 16;
+
+	/**
+	 * Maximum number of natural runs merged by {@link #sort(int[])}. An array
+	 * made of more runs is sorted by Arrays.parallelSort instead.
+	 */
+	public static final int MAX_RUN_COUNT = 256;
+
+	/**
+	 * Pools shared by all instances to scan large arrays in parallel, one per
+	 * parallelism. A pool is created when first needed and never shut down,
+	 * so that a scan is never rejected by a pool replaced under it. Its idle
+	 * threads terminate by themselves.
+	 */
+	private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+	/**
+	 * The original array
+	 */
+	private int[] numArray;
 
 	/**
-	 * The sorting method as indicated by sort method constants
+	 * The verdict, i.e. the sorting method as indicated by sort method
+	 * constants and the indexes of the left most and the right most elements
 	 */
-	private int method;
+	private final SortResult result;
 
 	/**
-	 * Stores index of the left most element in a sub-segment
+	 * Number of threads used to scan large arrays in parallel
 	 */
-	private int lindex;
+	private int parallelism;
 
 	/**
-	 * Stores index of the right most element in a sub-segment
+	 * Smallest number of elements for which the array is scanned in parallel
 	 */
-	private int rindex;
+	private int sequentialCutoff;
 
 	/**
-	 * Default constructor which initializes the instance variables
+	 * Default constructor which initializes the instance variables. The
+	 * parallelism is set to the number of available processors.
 	 */
 	private ArraySort() {
 		numArray = null;
-		clonedArray = null;
-		method = NOT_POSSIBLE;
-		lindex = -1;
-		rindex = -1;
+		result = new SortResult();
+		parallelism = Runtime.getRuntime().availableProcessors();
+		sequentialCutoff = DEFAULT_SEQUENTIAL_CUTOFF;
 	}
 
 	/**
@@ -126,6 +171,53 @@ public class ArraySort {
 		numArray = num;
 	}
 
+	/**
+	 * Returns the number of threads used to scan large arrays
+	 * 
+	 * @return The parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of threads used to scan large arrays. A value of 1
+	 * disables the parallel scan.
+	 * 
+	 * @param parallelism
+	 *            Number of threads, must be greater than 0
+	 * @throws IllegalArgumentException
+	 *             If parallelism is less than 1
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be greater than 0");
+
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the smallest number of elements for which the array is scanned
+	 * in parallel
+	 * 
+	 * @return The sequential cutoff
+	 */
+	public int getSequentialCutoff() {
+		return sequentialCutoff;
+	}
+
+	/**
+	 * Sets the smallest number of elements for which the array is scanned in
+	 * parallel. Smaller arrays are scanned by the current thread, for which
+	 * the cost of splitting the work would outweigh the gain.
+	 * 
+	 * @param sequentialCutoff
+	 *            The sequential cutoff
+	 */
+	public void setSequentialCutoff(int sequentialCutoff) {
+		this.sequentialCutoff = sequentialCutoff;
+	}
+
 	/**
 	 * Returns the sort method (Either one of the sort method constants) set by
 	 * {@link #analyzeArray()} method
@@ -133,272 +225,272 @@ public class ArraySort {
 	 * @return One of the selected sort method constant
 	 */
 	public int getSortMethod() {
-		return method;
+		return result.getSortMethod();
 	}
 
 	/**
-	 * Returns the index of the left element set by calling either
-	 * {@link #analyzeSwapMethod()} method or {@link #analyzeReversalMethod()}
-	 * method
+	 * Returns the index of the left element of the swap or the reversal set
+	 * by {@link #analyzeArray()} method
 	 * 
 	 * @return Index of the left most element
 	 */
 	public int getLIndex() {
-		return lindex + 1;
+		return result.getLIndex();
 	}
 
 	/**
-	 * Returns the index of the right element set by calling either
-	 * {@link #analyzeSwapMethod()} method or {@link #analyzeReversalMethod()}
-	 * method
+	 * Returns the index of the right element of the swap or the reversal set
+	 * by {@link #analyzeArray()} method
 	 * 
 	 * @return Index of the right most element
 	 */
 	public int getRIndex() {
-		return rindex + 1;
+		return result.getRIndex();
 	}
 
 	/**
 	 * This method should be called to start analyzing the array to determine
 	 * the possibility to sort. If possible, the method of sort (Either by
 	 * swapping 2 elements or by reversing a sub-segment) and the left and right
-	 * indexes of the respective elements are captured into variables
-	 * {@link #method}, {@link #lindex} and {@link #rindex}.
+	 * indexes of the respective elements are captured into the variable
+	 * {@link #result}.
 	 * <p>
-	 * This method creates a clone of the original array first, and checks if
-	 * the array is already sorted by calling {@link #isArraySorted()} method.
-	 * If not sorted already, then method {@link #analyzeSwapMethod()} is called
-	 * to check whether the array can be sorted by means of swapping 2 elements.
-	 * If not possible, then it checks the same by calling
-	 * {@link #analyzeReversalMethod()} method, to figure out whether reversing
-	 * a sub-segment can help to sort the array. If this check also fails, then
-	 * it concludes that the array is not possible to sort using either of the
-	 * defined methods.
+	 * The array is scanned once from left to right, without modifying or
+	 * copying it, looking for descents, i.e. indexes k such that d[k] &gt; d[k +
+	 * 1]. The scan produces a {@link DescentSummary}, which records the first
+	 * and the last descent, the number of descents and whether there is any
+	 * ascent (d[k] &lt; d[k + 1]) between the first and the last descent. The
+	 * verdict is then decided from the summary by
+	 * {@link ArraySortAnalyzer#decide(DescentView, SortResult)}, which checks
+	 * the swap, then the reversal, by looking at a few elements around the
+	 * descents only, so the whole analysis takes O(n) time.
+	 * </p>
+	 * <p>
+	 * If the array has at least as many elements as the sequential cutoff and
+	 * the parallelism is greater than 1, the array is split into chunks which
+	 * are scanned in parallel by {@link DescentTask} and their summaries are
+	 * merged into the summary of the whole array.
 	 * </p>
 	 * <p>
 	 * During the course of execution, this method sets the variable
-	 * {@link #method} to an appropriate value defined by sort method constants.
+	 * {@link #result} to an appropriate value defined by sort method constants.
 	 * </p>
 	 */
 	public void analyzeArray() {
-		// Create a clone of the original array
-		cloneArray();
-
-		// Check if array is already sorted
-		if (!isArraySorted()) {
-			// If not already sorted, check if array can be sorted by swapping
-			// elements
-			if (analyzeSwapMethod())
-				method = SORT_BY_SWAP;
-
-			// If array cannot be sorted by swapping, check reversal method
-			else if (analyzeReversalMethod())
-				method = SORT_BY_REVERSAL;
-		} else
-			method = SORTED_ALREADY;
+		DescentSummary summary;
+		if (numArray.length >= sequentialCutoff && parallelism > 1)
+			summary = parallelScan();
+		else
+			summary = DescentSummary.scan(numArray, 0, numArray.length);
+
+		new ArraySortAnalyzer().analyze(numArray, summary, result);
 	}
 
 	/**
-	 * <p>
-	 * This method analyzes the cloned array to figure out whether it is
-	 * possible to sort by swapping any 2 elements.
-	 * </p>
-	 * <p>
-	 * The method iterates over the array from left to right and selects pair of
-	 * elements. The selected pair is swapped by calling {@link #swap(int, int)}
-	 * method. In the next step, method {@link #isArraySorted()} is called to
-	 * check whether the array is sorted or not. If sorted, then the method sets
-	 * the indexes of left and right elements to variables {@link #lindex},
-	 * {@link #rindex} respectively and the loop exists. If not sorted, then the
-	 * process will continue by checking the subsequent pair of elements in the
-	 * same manner.
-	 * </p>
-	 * <p>
-	 * The method continues to select pair of elements until it either finds
-	 * that sorting is possible or the loop runs out. From a given set of N
-	 * elements, there are total N * (N - 1) unique pairs can be selected in
-	 * spite of pairing with the same element.
-	 * </p>
+	 * Scans the array in parallel on the shared ForkJoinPool of the
+	 * parallelism of this instance, with about 8 chunks per thread
 	 * 
-	 * @return true, if it is possible to sort the array. Otherwise, false
+	 * @return The summary of the whole array
 	 */
-	private boolean analyzeSwapMethod() {
-		// Declare and initialize variable to store the return value
-		boolean possible = false;
-
-		// Start loops to select pair of elements to test by swapping
-		for (int i = 0; i < clonedArray.length && !possible; i++)
-			for (int j = 0; j < clonedArray.length && !possible; j++)
-
-				// Check if indexes are the same. If so, skip
-				if (j != i) {
-					// Swap 2 elements
-					swap(i, j);
-
-					// Check whether the array is sorted or not
-					possible = isArraySorted();
-
-					if (possible) {
-						// If sorted, set the left and right indexes and exit
-						// the loop
-						lindex = i;
-						rindex = j;
-					} else
-						// If not sorted, undo swapping done in the previous
-						// step
-						swap(i, j);
-				}
-
-		return possible;
+	private DescentSummary parallelScan() {
+		int leafSize = Math.max(numArray.length / (8 * parallelism), MIN_LEAF_SIZE);
+
+		return getPool(parallelism).invoke(new DescentTask(numArray, 0, numArray.length, leafSize));
+	}
+
+	/**
+	 * Returns the ForkJoinPool shared by all instances with the parallelism
+	 * passed as parameter, creating it when called for the first time with
+	 * this parallelism. Instances with different parallelism use different
+	 * pools, which are kept for later scans.
+	 * 
+	 * @param parallelism
+	 *            Number of threads
+	 * @return The ForkJoinPool
+	 */
+	private static ForkJoinPool getPool(int parallelism) {
+		return POOLS.computeIfAbsent(parallelism, ForkJoinPool::new);
 	}
 
 	/**
 	 * <p>
-	 * This method analyzes the cloned array to figure out whether it is
-	 * possible to sort by reversing a sub-segment.
-	 * </p>
-	 * <p>
-	 * The method iterates over the cloned array from right to left, to select
-	 * segments of all possible lengths. There are 2 for loops, of which the
-	 * outer loop keeps track of the length of the sub-segments. The inner loop
-	 * determines the lower and higher indexes of the desired sub-segment. In
-	 * the next step, method {@link #reverseArray(int, int)} is called to
-	 * reverse the sub-segment identified by the left and right indexes. After
-	 * reversing the elements in this way, method {@link #isArraySorted()} is
-	 * called to check whether the array is sorted or not. This process
-	 * continues until either the array becomes sorted or the loop runs out. If
-	 * the array becomes sorted during a particular iteration, indexes of the
-	 * left and right elements are assigned to variables {@link #lindex},
-	 * {@link #rindex} respectively.
+	 * Sorts an array in ascending order, making use of the analysis of this
+	 * class. If the array is already sorted, nothing is done. If it can be
+	 * sorted by swapping 2 elements or by reversing a sub-segment, that single
+	 * operation is applied, so that the whole sort takes O(n) time.
 	 * </p>
 	 * <p>
-	 * Determining the length of a segment is carried out by the loop variables
-	 * of the inner for loop. Right most index of the segment is set by inner
-	 * loop variable r and the left most index l is initialized as l = r - c +
-	 * 1, where c is the outer loop variable, which defines the length of the
-	 * segment. Once, initialized, both the variables are decremented after each
-	 * iteration. In this way, segments of all possible length can be
-	 * determined.
+	 * Otherwise the array is split into natural runs, i.e. maximal segments in
+	 * ascending order, or in strictly descending order which are reversed in
+	 * place. If there are at most {@link #MAX_RUN_COUNT} runs, they are merged
+	 * pairwise, level after level, through a buffer of the size of the array,
+	 * in O(n log r) time for r runs. Else the array is considered random and
+	 * sorted by <a href=
+	 * "https://docs.oracle.com/javase/8/docs/api/java/util/Arrays.html#parallelSort-int:A-">java.util.Arrays.parallelSort</a>.
 	 * </p>
 	 * 
-	 * @return true, if it is possible to sort the array. Otherwise, false
+	 * @param a
+	 *            The array to sort
 	 */
-	private boolean analyzeReversalMethod() {
-		boolean possible = false;
-
-		// Outer for loop variable c determines length of the segment
-		for (int c = clonedArray.length; c >= 2 && !possible; c--)
-			// Inner for loop variables r and l determines right and left
-			// indexes
-			for (int r = clonedArray.length - 1, l = r - c + 1; l > 0 && !possible; r--, l--) {
-				// Reverse the segment from index r to index l, both inclusive
-				reverseArray(l, r);
-
-				// Check if array is sorted
-				possible = isArraySorted();
-
-				// If sorted, store left and right indexes
-				if (possible) {
-					lindex = l;
-					rindex = r;
-				} else
-					// Clone original array to reset the cloned array
-					cloneArray();
+	public static void sort(int[] a) {
+		ArraySort analysis = new ArraySort(a);
+		analysis.analyzeArray();
+
+		int l = (int) analysis.result.getLeft();
+		int r = (int) analysis.result.getRight();
+
+		switch (analysis.getSortMethod()) {
+		case SORTED_ALREADY:
+			return;
+		case SORT_BY_SWAP:
+			int x = a[l];
+			a[l] = a[r];
+			a[r] = x;
+			return;
+		case SORT_BY_REVERSAL:
+			reverse(a, l, r);
+			return;
+		default:
+			break;
+		}
+
+		// Check if the array is made of a few runs
+		int[] runs = new int[MAX_RUN_COUNT + 1];
+		int count = 0;
+		for (int k = 0; k < a.length; count++) {
+			if (count == MAX_RUN_COUNT) {
+				Arrays.parallelSort(a);
+				return;
 			}
 
-		return possible;
+			runs[count] = k;
+			k = endOfRun(a, k);
+		}
+		runs[count] = a.length;
+
+		mergeRuns(a, runs, count);
 	}
 
 	/**
-	 * Checks whether the array is sorted or not and returns true/false. Array
-	 * elements are compared one by one and if at any point, an element is found
-	 * to be greater than the previous element, then array is identified as not
-	 * sorted.
+	 * Returns the index after the natural run starting at index k. A strictly
+	 * descending run is reversed, so that every run is in ascending order.
 	 * 
-	 * @return true, if the array is sorted. Otherwise false
+	 * @param a
+	 *            The array
+	 * @param k
+	 *            Index of the first element of the run
+	 * @return Index after the last element of the run
 	 */
-	private boolean isArraySorted() {
-		boolean sorted = true;
-
-		// Loop over array from left to right
-		for (int i = 1; i < clonedArray.length; i++)
-
-			// Check if current element is less than the previous one. If so,
-			// the array is not sorted, so exit the loop
-			if (clonedArray[i] < clonedArray[i - 1]) {
-				sorted = false;
-				break;
-			}
+	private static int endOfRun(int[] a, int k) {
+		int end = k + 1;
+		if (end == a.length)
+			return end;
+
+		if (a[k] > a[end]) {
+			while (end + 1 < a.length && a[end] > a[end + 1])
+				end++;
+			reverse(a, k, end);
+		} else
+			while (end + 1 < a.length && a[end] <= a[end + 1])
+				end++;
 
-		return sorted;
+		return end + 1;
 	}
 
 	/**
-	 * Swaps the elements specified by the parameters index1 (left) and index2
-	 * (right)
+	 * Merges adjacent runs pairwise until a single run remains. Every level
+	 * merges from one array into the other, starting from the array itself,
+	 * and the result is copied back if it ends in the buffer.
 	 * 
-	 * @param index1
-	 *            Index of the element on the left in the array
-	 * @param index2
-	 *            Index of the element on the right in the array
+	 * @param a
+	 *            The array
+	 * @param runs
+	 *            Indexes of the first element of every run, followed by the
+	 *            length of the array
+	 * @param count
+	 *            Number of runs
 	 */
-	private void swap(int index1, int index2) {
-		// Store left element in a temporary variable
-		int temp = clonedArray[index1];
+	private static void mergeRuns(int[] a, int[] runs, int count) {
+		if (count <= 1)
+			return;
+
+		int[] src = a;
+		int[] dst = new int[a.length];
+
+		while (count > 1) {
+			int merged = 0;
+			for (int i = 0; i < count; i += 2) {
+				int lo = runs[i];
+				int mid = runs[i + 1];
+				int hi = (i + 2 <= count) ? runs[i + 2] : mid;
+
+				merge(src, lo, mid, hi, dst);
+				runs[merged++] = lo;
+			}
+
+			runs[merged] = a.length;
+			count = merged;
 
-		// Replace element at index1 with element at index2
-		clonedArray[index1] = clonedArray[index2];
+			int[] t = src;
+			src = dst;
+			dst = t;
+		}
 
-		// Replace element at index2 with the value in variable temp (The value
-		// of the element at index1)
-		clonedArray[index2] = temp;
+		if (src != a)
+			System.arraycopy(src, 0, a, 0, a.length);
 	}
 
 	/**
-	 * Reverses the elements of the array starting from index l to r, inclusive
-	 * of both the indexes. This method pairs the elements at the left most and
-	 * right most indexes specified by l,r respectively. Method
-	 * {@link #swap(int, int)} is called to interchange the pair of elements.
-	 * This process continues by incrementing the left index and decrementing
-	 * the right index, until all possible iterations are complete.
+	 * Merges the ascending runs src[lo...mid - 1] and src[mid...hi - 1] into
+	 * dst[lo...hi - 1]
 	 * 
-	 * @param l
-	 *            Index of the array element on the left
-	 * @param r
-	 *            Index of the array element on the right
+	 * @param src
+	 *            The array holding the runs
+	 * @param lo
+	 *            Index of the first element of the left run
+	 * @param mid
+	 *            Index of the first element of the right run
+	 * @param hi
+	 *            Index after the last element of the right run
+	 * @param dst
+	 *            The array receiving the merged run
 	 */
-	private void reverseArray(int l,int r) {
+	private static void merge(int[] src, int lo, int mid, int hi, int[] dst) {
+		int i = lo;
+		int j = mid;
+		int k = lo;
 
-		// Determine the number of iterations required
-		int itrns = (r - l + 1) / 2;
+		while (i < mid && j < hi)
+			dst[k++] = (src[j] < src[i]) ? src[j++] : src[i++];
 
-		// Loop until the required number of iterations are complete
-		for (int i = l, j = r, c = 1; c <= itrns; i++, j--, c++)
-			swap(i,j);
+		System.arraycopy(src, i, dst, k, mid - i);
+		System.arraycopy(src, j, dst, k + mid - i, hi - j);
 	}
 
 	/**
-	 * Clones the original array. A new clone array is created only when the
-	 * method is called for the first time. At all other times, the existing
-	 * {@link #clonedArray} variable is overwritten with the corresponding
-	 * values from the original array.
+	 * Reverses the elements of an array from index l to index r, both
+	 * inclusive
+	 * 
+	 * @param a
+	 *            The array
+	 * @param l
+	 *            Index of the first element
+	 * @param r
+	 *            Index of the last element
 	 */
-	private void cloneArray() {
-		// Create the array with size same as that of the original array, only
-		// when calling the method for the very first time.
-		if (clonedArray == null)
-			clonedArray = new int[numArray.length];
-
-		// Copy the corresponding elements from the original array
-		for (int i = 0; i < clonedArray.length; i++)
-			clonedArray[i] = numArray[i];
+	private static void reverse(int[] a, int l, int r) {
+		while (l < r) {
+			int t = a[l];
+			a[l++] = a[r];
+			a[r--] = t;
+		}
 	}
 
 	/**
 	 * <p>
-	 * The entry point of execution. This method creates an object of <a href=
-	 * "https://docs.oracle.com/javase/7/docs/api/java/util/Scanner.html">java.util.Scanner</a>
-	 * class to read data from standard input.
+	 * The entry point of execution. This method creates an {@link IntReader}
+	 * to read integers from standard input.
+	 * </p>
 	 * <p>
 	 * The method prompts to enter the number of elements first. In the next
 	 * step, it prompts to enter the elements. After necessary validations, the
@@ -413,43 +505,26 @@ public class ArraySort {
 	 * @param args
 	 *            An array of type String, is the command line parameters
 	 *            injected at runtime.
-	 * @throws RuntimeException
-	 *             If the size of the array entered does not match the size
-	 *             specified in the previous step.
 	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/lang/RuntimeException.html">java.lang.RuntimeException</a>
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/util/InputMismatchException.html">java.util.InputMismatchException</a>
+	 *      "https://docs.oracle.com/javase/7/docs/api/java/io/EOFException.html">java.io.EOFException</a>
 	 * @see <a href=
 	 *      "https://docs.oracle.com/javase/7/docs/api/java/lang/NumberFormatException.html">java.lang.NumberFormatException</a>
 	 * @see <a href=
 	 *      "https://docs.oracle.com/javase/7/docs/api/java/lang/Exception.html">java.lang.Exception</a>
 	 */
 	public static void main(String[] args) {
-		// Create an object of Scanner to read from standard input
-		Scanner scan = new Scanner(System.in);
+		// Create a reader of integers from standard input
+		IntReader reader = new IntReader(System.in);
 
 		try {
 			// Prompt to enter the array size and read the value
 			System.out.println("Enter the number of elements");
-			int n = scan.nextInt();
+			int n = reader.nextInt();
 
-			// Prompt to enter the array element separated by space and read the
-			// values
+			// Prompt to enter the array elements and read the values. An
+			// EOFException is thrown if the input does not contain n numbers.
 			System.out.println("Enter " + n + " integers separated by space ");
-			scan.nextLine();
-			String[] input = scan.nextLine().split(" ");
-
-			// Validate array size
-			if (input.length < n)
-				throw new RuntimeException("Input does not contain " + n + " numbers");
-
-			// Create the original array
-			int[] num = new int[n];
-
-			// Assign array elements read in the previous step
-			for (int i = 0; i < n; i++)
-				num[i] = Integer.parseInt(input[i]);
+			int[] num = reader.nextInts(n);
 
 			// Create an object of this class and start analyzing the array
 			// values
@@ -478,10 +553,12 @@ public class ArraySort {
 				System.out.println("No");
 			}
 
-		} catch (InputMismatchException e) {
-			System.out.println("Not a valid number ");
 		} catch (NumberFormatException e) {
-			System.out.println("Not a valid integer " + e.getMessage().toLowerCase());
+			System.out.println("Not a valid integer, " + e.getMessage().toLowerCase());
+		} catch (EOFException e) {
+			System.out.println("Input does not contain enough numbers, " + e.getMessage().toLowerCase());
+		} catch (IOException e) {
+			System.out.println("Input cannot be read : " + e.getMessage());
 		} catch (RuntimeException e) {
 			System.out.println(e.getMessage());
 		} catch (Exception e) {
@@ -0,0 +1,409 @@
+/**
+ * <p>
+ * A reusable version of the analysis of {@link ArraySort}, for checking a
+ * large number of arrays one after the other. A single analyzer checks any
+ * slice of any array through {@link #analyze(int[], int, int, SortResult)} and
+ * writes the verdict into a {@link SortResult} supplied by the caller.
+ * </p>
+ * <p>
+ * The analyzer keeps its scratch memory, a view of the slice being analyzed,
+ * from one call to the next, so that an analysis allocates no object at all:
+ * the slice is neither copied nor wrapped, and the result holder can be
+ * reused as well. An analyzer is not thread safe, each thread should use its
+ * own.
+ * </p>
+ * <p>
+ * The verdict itself is computed by
+ * {@link #decide(DescentView, SortResult)} from a {@link DescentView} of the
+ * sequence. Every analyzer of this package, ArraySort, the analyzers of
+ * {@link SortAnalysis}, {@link StreamingSortVerifier} and
+ * {@link IncrementalArraySort}, finds the descents in its own manner and
+ * calls that method with a view of them.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see ArraySort
+ * @see SortResult
+ * @see DescentView
+ */
+public final class ArraySortAnalyzer {
+
+	/**
+	 * View of the slice being analyzed
+	 */
+	private final IntSlice slice;
+
+	/**
+	 * Default constructor which initializes the instance variables
+	 */
+	public ArraySortAnalyzer() {
+		slice = new IntSlice();
+	}
+
+	/**
+	 * Analyzes the elements of an array from index from, inclusive, to index
+	 * to, exclusive, to determine the possibility to sort them, as
+	 * {@link ArraySort#analyzeArray()} does for a whole array. The indexes of
+	 * the result are relative to from.
+	 *
+	 * @param a
+	 *            The array
+	 * @param from
+	 *            Index of the first element of the slice
+	 * @param to
+	 *            Index after the last element of the slice
+	 * @param result
+	 *            The holder receiving the verdict
+	 * @throws IndexOutOfBoundsException
+	 *             If from is negative, to is greater than the length of the
+	 *             array or from is greater than to
+	 */
+	public void analyze(int[] a, int from, int to, SortResult result) {
+		if (from < 0 || to > a.length || from > to)
+			throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") out of bounds for length " + a.length);
+
+		int first = -1;
+		int last = -1;
+		int count = 0;
+		boolean ascent = false;
+		boolean broken = false;
+
+		for (int k = from; k + 1 < to; k++) {
+			if (a[k] > a[k + 1]) {
+				if (first < 0)
+					first = k;
+				else if (ascent)
+					broken = true;
+
+				last = k;
+				count++;
+			} else if (a[k] < a[k + 1] && first >= 0)
+				ascent = true;
+		}
+
+		slice.set(a, from, to, first - from, last - from, count, broken);
+		decide(slice, result);
+		slice.set(null, 0, 0, -1, -1, 0, false);
+	}
+
+	/**
+	 * Analyzes a whole array, see {@link #analyze(int[], int, int, SortResult)}
+	 *
+	 * @param a
+	 *            The array
+	 * @param result
+	 *            The holder receiving the verdict
+	 */
+	public void analyze(int[] a, SortResult result) {
+		analyze(a, 0, a.length, result);
+	}
+
+	/**
+	 * Analyzes a whole array whose descents have already been summarized, for
+	 * e.g. by a parallel or a vector scan
+	 *
+	 * @param a
+	 *            The array
+	 * @param summary
+	 *            Summary of the descents of the array
+	 * @param result
+	 *            The holder receiving the verdict
+	 */
+	void analyze(int[] a, DescentSummary summary, SortResult result) {
+		slice.set(a, 0, a.length, summary.first, summary.last, summary.count, summary.broken);
+		decide(slice, result);
+		slice.set(null, 0, 0, -1, -1, 0, false);
+	}
+
+	/**
+	 * <p>
+	 * Decides whether the sequence seen through a {@link DescentView} is
+	 * sorted, can be sorted by swapping 2 elements or by reversing a
+	 * sub-segment, and writes the verdict into result. If there is no descent,
+	 * the sequence is already sorted. Else method
+	 * {@link #analyzeSwapMethod(DescentView, long, long)} checks whether it can
+	 * be sorted by swapping 2 elements and, if not possible, method
+	 * {@link #analyzeReversalMethod(DescentView, long, long)} checks whether it
+	 * can be sorted by reversing a sub-segment.
+	 * </p>
+	 * <p>
+	 * Both checks look at the left candidate x, the first index of the run of
+	 * equal elements ending at the first descent, and the right candidate y,
+	 * the last index of the run of equal elements starting after the last
+	 * descent. Since the elements before the first descent and after the last
+	 * descent are in ascending order, these are also the ends of the runs of
+	 * elements in descending order around the descents, which bound the only
+	 * candidate segment of the reversal. So both checks compare a few elements
+	 * next to x and y only.
+	 * </p>
+	 *
+	 * @param view
+	 *            The view of the sequence
+	 * @param result
+	 *            The holder receiving the verdict
+	 */
+	static void decide(DescentView view, SortResult result) {
+		// Check if the sequence is already sorted
+		if (view.descentCount() == 0) {
+			result.set(ArraySort.SORTED_ALREADY, -1, -1);
+			return;
+		}
+
+		long x = view.left();
+		long y = view.right();
+
+		if (analyzeSwapMethod(view, x, y))
+			result.set(ArraySort.SORT_BY_SWAP, x, y);
+		else if (analyzeReversalMethod(view, x, y))
+			result.set(ArraySort.SORT_BY_REVERSAL, x, y);
+		else
+			result.set(ArraySort.NOT_POSSIBLE, -1, -1);
+	}
+
+	/**
+	 * <p>
+	 * Checks whether swapping the elements at index x and y sorts the
+	 * sequence.
+	 * </p>
+	 * <p>
+	 * If a swap sorts the sequence, the larger element moves right and the
+	 * first descent lies at its original index, or at the end of a run of
+	 * elements equal to it. Likewise the smaller element moves left and the
+	 * last descent lies just before it, or before a run of elements equal to
+	 * it. So the only candidate pair is x and y. Other pairs, if any, would
+	 * leave a descent in place.
+	 * </p>
+	 * <p>
+	 * Swapping d[x] and d[y] only changes the pairs of neighbours (x - 1, x),
+	 * (x, x + 1), (y - 1, y) and (y, y + 1). The swap therefore sorts the
+	 * sequence if and only if every descent is one of these pairs, which means
+	 * there are at most {@link DescentSummary#MAX_POSITIONS} descents, and none
+	 * of these pairs is a descent after the swap.
+	 * </p>
+	 *
+	 * @param view
+	 *            The view of the sequence
+	 * @param x
+	 *            Index of the left candidate
+	 * @param y
+	 *            Index of the right candidate
+	 * @return true, if it is possible to sort the sequence. Otherwise, false
+	 */
+	private static boolean analyzeSwapMethod(DescentView view, long x, long y) {
+		if (view.descentCount() > DescentSummary.MAX_POSITIONS)
+			return false;
+
+		// Every descent must be next to one of the swapped elements. The pairs
+		// (x, x + 1) and (y - 1, y) are the same if y = x + 1.
+		int descents = isDescent(view, x - 1) + isDescent(view, x) + isDescent(view, y);
+		if (y - 1 != x)
+			descents += isDescent(view, y - 1);
+
+		if (descents != view.descentCount())
+			return false;
+
+		// The pairs next to the swapped elements must be in order after the
+		// swap
+		return inOrderAfterSwap(view, x - 1, x, y) && inOrderAfterSwap(view, x, x, y)
+				&& inOrderAfterSwap(view, y - 1, x, y) && inOrderAfterSwap(view, y, x, y);
+	}
+
+	/**
+	 * <p>
+	 * Checks whether reversing the elements from index x to index y sorts the
+	 * sequence.
+	 * </p>
+	 * <p>
+	 * A reversed segment must contain every descent and must be in descending
+	 * order (non increasing), so there must be no ascent between the first
+	 * and the last descent. The segment d[x...y] extends over the elements
+	 * equal to its ends. A shorter segment would leave an element next to it
+	 * which is equal to the one at its end, out of order after the reversal.
+	 * </p>
+	 * <p>
+	 * Since the elements before x and after y are in ascending order, the
+	 * reversal sorts the sequence if and only if the element before the
+	 * segment is not greater than d[y], and the element after the segment is
+	 * not less than d[x].
+	 * </p>
+	 *
+	 * @param view
+	 *            The view of the sequence
+	 * @param x
+	 *            Index of the first element of the segment
+	 * @param y
+	 *            Index of the last element of the segment
+	 * @return true, if it is possible to sort the sequence. Otherwise, false
+	 */
+	private static boolean analyzeReversalMethod(DescentView view, long x, long y) {
+		if (view.isBroken())
+			return false;
+
+		// Check the elements around the segment after the reversal
+		if (x > 0 && view.compare(x - 1, y) > 0)
+			return false;
+		if (y + 1 < view.length() && view.compare(x, y + 1) > 0)
+			return false;
+
+		return true;
+	}
+
+	/**
+	 * Returns 1 if the pair of neighbours (k, k + 1) is a descent, 0 if it is
+	 * not or lies outside the sequence
+	 *
+	 * @param view
+	 *            The view of the sequence
+	 * @param k
+	 *            Index of the left element of the pair
+	 * @return 1 for a descent, else 0
+	 */
+	private static int isDescent(DescentView view, long k) {
+		return (k >= 0 && k + 1 < view.length() && view.compare(k, k + 1) > 0) ? 1 : 0;
+	}
+
+	/**
+	 * Checks whether the pair of neighbours (k, k + 1) is in order once the
+	 * elements at index x and y are swapped. A pair outside the sequence is
+	 * considered in order.
+	 *
+	 * @param view
+	 *            The view of the sequence
+	 * @param k
+	 *            Index of the left element of the pair
+	 * @param x
+	 *            Index of the first swapped element
+	 * @param y
+	 *            Index of the second swapped element
+	 * @return true, if the pair is in order after the swap. Otherwise, false
+	 */
+	private static boolean inOrderAfterSwap(DescentView view, long k, long x, long y) {
+		if (k < 0 || k + 1 >= view.length())
+			return true;
+
+		return view.compare(indexAfterSwap(k, x, y), indexAfterSwap(k + 1, x, y)) <= 0;
+	}
+
+	/**
+	 * Returns the index of the element found at index k once the elements at
+	 * index x and y are swapped
+	 *
+	 * @param k
+	 *            Index after the swap
+	 * @param x
+	 *            Index of the first swapped element
+	 * @param y
+	 *            Index of the second swapped element
+	 * @return Index of the element before the swap
+	 */
+	private static long indexAfterSwap(long k, long x, long y) {
+		if (k == x)
+			return y;
+		else if (k == y)
+			return x;
+		else
+			return k;
+	}
+
+	/**
+	 * View of a slice of an array of int, with indexes relative to the start
+	 * of the slice
+	 */
+	private static final class IntSlice implements DescentView {
+
+		/**
+		 * The array, or null between 2 analyses
+		 */
+		private int[] array;
+
+		/**
+		 * Index of the first element of the slice
+		 */
+		private int from;
+
+		/**
+		 * Number of elements of the slice
+		 */
+		private int length;
+
+		/**
+		 * Index of the first descent, relative to the slice
+		 */
+		private int first;
+
+		/**
+		 * Index of the last descent, relative to the slice
+		 */
+		private int last;
+
+		/**
+		 * Number of descents
+		 */
+		private int count;
+
+		/**
+		 * true, if there is an ascent between the first and the last descent
+		 */
+		private boolean broken;
+
+		/**
+		 * Sets the slice and its descents
+		 *
+		 * @param array
+		 *            The array
+		 * @param from
+		 *            Index of the first element of the slice
+		 * @param to
+		 *            Index after the last element of the slice
+		 * @param first
+		 *            Index of the first descent, relative to the slice
+		 * @param last
+		 *            Index of the last descent, relative to the slice
+		 * @param count
+		 *            Number of descents
+		 * @param broken
+		 *            true, if there is an ascent between the first and the
+		 *            last descent
+		 */
+		void set(int[] array, int from, int to, int first, int last, int count, boolean broken) {
+			this.array = array;
+			this.from = from;
+			this.length = to - from;
+			this.first = first;
+			this.last = last;
+			this.count = count;
+			this.broken = broken;
+		}
+
+		@Override
+		public long length() {
+			return length;
+		}
+
+		@Override
+		public long descentCount() {
+			return count;
+		}
+
+		@Override
+		public long firstDescent() {
+			return first;
+		}
+
+		@Override
+		public long lastDescent() {
+			return last;
+		}
+
+		@Override
+		public boolean isBroken() {
+			return broken;
+		}
+
+		@Override
+		public int compare(long i, long j) {
+			return Integer.compare(array[from + (int) i], array[from + (int) j]);
+		}
+	}
+}
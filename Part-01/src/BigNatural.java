@@ -0,0 +1,827 @@
+import java.util.Arrays;
+
+/**
+ * <p>
+ * This class represents an arbitrarily large natural number (including zero)
+ * and serves as the big number engine behind the {@link Factorial} class. The
+ * number is stored as an array of primitive int values, each holding 32 bits
+ * of the number (a limb). Limbs are stored in little endian order, i.e. the
+ * least significant limb is located at index 0. Every limb is treated as an
+ * unsigned value.
+ * </p>
+ * <p>
+ * Unlike a list of boxed digits, a limb array keeps 32 bits of the number in a
+ * single 4 byte slot, avoids boxing altogether and allows multiplication to be
+ * performed on machine words. The array may have more capacity than the number
+ * of limbs in use so that it can grow without reallocating on every operation.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see <a href=
+ *      "https://docs.oracle.com/javase/7/docs/api/java/util/Arrays.html">java.util.Arrays</a>
+ */
+final class BigNatural {
+
+	/**
+	 * Mask to convert a limb to its unsigned value of type long
+	 */
+	static final long LONG_MASK = 0xFFFFFFFFL;
+
+	/**
+	 * Largest power of 10 that fits in a limb. Used for decimal conversion.
+	 */
+	private static final long DECIMAL_BASE = 1000000000L;
+
+	/**
+	 * Number of decimal digits in {@link #DECIMAL_BASE}
+	 */
+	private static final int DECIMAL_BASE_DIGITS = 9;
+
+	/**
+	 * Number of limbs of the smaller operand from which Karatsuba
+	 * multiplication is used instead of the schoolbook method
+	 */
+	static final int KARATSUBA_THRESHOLD = 64;
+
+	/**
+	 * Number of limbs of the larger operand from which Toom-Cook 3 way
+	 * multiplication is used instead of Karatsuba multiplication
+	 */
+	static final int TOOM3_THRESHOLD = 256;
+
+	/**
+	 * Number of limbs from which Karatsuba squaring is used instead of the
+	 * schoolbook method
+	 */
+	static final int KARATSUBA_SQUARE_THRESHOLD = 96;
+
+	/**
+	 * Number of limbs from which Toom-Cook 3 way squaring is used instead of
+	 * Karatsuba squaring
+	 */
+	static final int TOOM3_SQUARE_THRESHOLD = 320;
+
+	/**
+	 * Limbs of the number in little endian order
+	 */
+	private int[] mag;
+
+	/**
+	 * Number of limbs in use. Limbs at index len and above are ignored.
+	 */
+	private int len;
+
+	/**
+	 * Constructor, creates a number from the limbs passed as parameter. The
+	 * array is not copied.
+	 *
+	 * @param mag
+	 *            Limbs of the number in little endian order
+	 * @param len
+	 *            Number of limbs in use
+	 */
+	BigNatural(int[] mag, int len) {
+		this.mag = mag;
+		this.len = len;
+
+		// Drop leading zero limbs so that len always reflects the magnitude
+		normalize();
+	}
+
+	/**
+	 * Returns a number equal to the value passed as parameter.
+	 *
+	 * @param value
+	 *            A non negative value
+	 * @return A new instance holding the value
+	 */
+	static BigNatural valueOf(long value) {
+		return new BigNatural(new int[] { (int) value, (int) (value >>> 32) }, 2);
+	}
+
+	/**
+	 * Multiplies this number by a factor of at most 32 bits, overwriting the
+	 * current value. The limb array grows only when the product needs one more
+	 * limb, and then by half of its size, so a long series of multiplications
+	 * performs very few allocations.
+	 *
+	 * @param factor
+	 *            The factor, treated as an unsigned 32 bit value
+	 */
+	void multiplyInPlace(int factor) {
+		long f = factor & LONG_MASK;
+		long carry = 0;
+
+		// Multiply limb by limb from the least significant limb, taking care of
+		// the carry generated. The product of two limbs plus a carry always
+		// fits in 64 bits when treated as unsigned.
+		for (int i = 0; i < len; i++) {
+			long p = (mag[i] & LONG_MASK) * f + carry;
+			mag[i] = (int) p;
+			carry = p >>> 32;
+		}
+
+		// Add carry, if any remains, as a new most significant limb
+		if (carry != 0) {
+			if (len == mag.length)
+				mag = Arrays.copyOf(mag, len + (len >> 1) + 2);
+
+			mag[len++] = (int) carry;
+		}
+	}
+
+	/**
+	 * Returns the product of the odd parts of all integers from lo to hi, both
+	 * inclusive. The odd part of an integer is the integer with all its
+	 * factors of 2 removed. Consecutive odd parts are packed together as long
+	 * as their product fits in a single limb.
+	 *
+	 * @param lo
+	 *            The first factor, must be greater than 0
+	 * @param hi
+	 *            The last factor
+	 * @return A new instance holding the product
+	 */
+	static BigNatural oddProductOfRange(int lo, int hi) {
+		BigNatural product = valueOf(1);
+		long packed = 1;
+
+		// Loop variable is a long so that hi = Integer.MAX_VALUE terminates
+		for (long i = lo; i <= hi; i++) {
+			long odd = i >>> Long.numberOfTrailingZeros(i);
+
+			// Flush the packed factors once the next factor does not fit
+			if (packed * odd > LONG_MASK) {
+				product.multiplyInPlace((int) packed);
+				packed = 1;
+			}
+
+			packed *= odd;
+		}
+
+		product.multiplyInPlace((int) packed);
+
+		return product;
+	}
+
+	/**
+	 * <p>
+	 * Returns the product of this number and the number passed as parameter.
+	 * Neither of the numbers is modified. The multiplication method is selected
+	 * by the number of limbs of the operands :-
+	 * </p>
+	 * <ul>
+	 * <li>If the smaller operand has fewer than
+	 * {@link #KARATSUBA_THRESHOLD} limbs, the schoolbook method is used.</li>
+	 * <li>If the larger operand has more than twice as many limbs as the
+	 * smaller operand, the larger one is cut into pieces of the size of the
+	 * smaller one, which are multiplied separately.</li>
+	 * <li>Else, if the larger operand has fewer than {@link #TOOM3_THRESHOLD}
+	 * limbs, the Karatsuba method is used, and the Toom-Cook 3 way method
+	 * otherwise.</li>
+	 * </ul>
+	 *
+	 * @param other
+	 *            The number to multiply with
+	 * @return A new instance holding the product
+	 */
+	BigNatural multiply(BigNatural other) {
+		if (other == this)
+			return square();
+
+		int xlen = Math.max(len, other.len);
+		int ylen = Math.min(len, other.len);
+
+		if (ylen < KARATSUBA_THRESHOLD) {
+			int[] result = new int[len + other.len];
+			multiplyToLen(mag, len, other.mag, other.len, result);
+			return new BigNatural(result, result.length);
+		}
+
+		if (xlen > 2 * ylen)
+			return len > other.len ? multiplyUnbalanced(this, other) : multiplyUnbalanced(other, this);
+
+		if (xlen < TOOM3_THRESHOLD)
+			return multiplyKaratsuba(this, other);
+
+		return multiplyToomCook3(this, other);
+	}
+
+	/**
+	 * Returns the square of this number. This number is not modified. Squaring
+	 * follows the same scheme as {@link #multiply(BigNatural)}, with thresholds
+	 * of its own, but every sub product is a square as well.
+	 *
+	 * @return A new instance holding the square
+	 */
+	BigNatural square() {
+		if (len < KARATSUBA_SQUARE_THRESHOLD) {
+			int[] result = new int[2 * len];
+			squareToLen(mag, len, result);
+			return new BigNatural(result, result.length);
+		}
+
+		if (len < TOOM3_SQUARE_THRESHOLD)
+			return multiplyKaratsuba(this, this);
+
+		return multiplyToomCook3(this, this);
+	}
+
+	/**
+	 * Multiplies x by a much shorter y. x is cut into pieces of as many limbs
+	 * as y, each piece is multiplied by y, and the partial products are added
+	 * at the position of their piece. Every partial product is then a balanced
+	 * multiplication.
+	 *
+	 * @param x
+	 *            The longer operand
+	 * @param y
+	 *            The shorter operand
+	 * @return A new instance holding the product
+	 */
+	private static BigNatural multiplyUnbalanced(BigNatural x, BigNatural y) {
+		int[] result = new int[x.len + y.len];
+
+		for (int offset = 0; offset < x.len; offset += y.len)
+			addShifted(result, x.slice(offset, offset + y.len).multiply(y), offset);
+
+		return new BigNatural(result, result.length);
+	}
+
+	/**
+	 * <p>
+	 * Multiplies x by y using the Karatsuba method. Both numbers are split in
+	 * halves at half limbs, x = xh.B + xl and y = yh.B + yl, where B is 2 raised
+	 * to the power 32 * half. The product is then assembled from 3 products of
+	 * half the size instead of 4 :-
+	 * </p>
+	 * <p>
+	 * x.y = p1.B<sup>2</sup> + (p3 - p1 - p2).B + p2, where p1 = xh.yh, p2 =
+	 * xl.yl and p3 = (xh + xl).(yh + yl).
+	 * </p>
+	 * When x and y are the same instance, all 3 products are squares.
+	 *
+	 * @param x
+	 *            The left hand side
+	 * @param y
+	 *            The right hand side
+	 * @return A new instance holding the product
+	 */
+	private static BigNatural multiplyKaratsuba(BigNatural x, BigNatural y) {
+		int half = (Math.max(x.len, y.len) + 1) / 2;
+
+		BigNatural xl = x.slice(0, half);
+		BigNatural xh = x.slice(half, x.len);
+
+		BigNatural p1, p2, p3;
+		if (x == y) {
+			p1 = xh.square();
+			p2 = xl.square();
+			p3 = xh.add(xl).square();
+		} else {
+			BigNatural yl = y.slice(0, half);
+			BigNatural yh = y.slice(half, y.len);
+
+			p1 = xh.multiply(yh);
+			p2 = xl.multiply(yl);
+			p3 = xh.add(xl).multiply(yh.add(yl));
+		}
+
+		int[] result = new int[x.len + y.len];
+		addShifted(result, p2, 0);
+		addShifted(result, p1, 2 * half);
+		addShifted(result, p3.subtract(p1).subtract(p2), half);
+
+		return new BigNatural(result, result.length);
+	}
+
+	/**
+	 * <p>
+	 * Multiplies x by y using the Toom-Cook 3 way method. Both numbers are
+	 * split in 3 parts of k limbs, x = x2.B<sup>2</sup> + x1.B + x0 and
+	 * likewise for y, where B is 2 raised to the power 32 * k. The parts are
+	 * seen as polynomials, which are evaluated at the points 0, 1, -1, 2 and
+	 * infinity. The 5 values are multiplied pointwise and the product
+	 * polynomial is recovered by interpolation, following the sequence of
+	 * operations given by Marco Bodrato. 5 products of a third of the size are
+	 * performed instead of 9.
+	 * </p>
+	 * <p>
+	 * Only the value at -1 may be negative. Its sign is tracked separately,
+	 * and every other intermediate value is known to be non negative.
+	 * </p>
+	 * When x and y are the same instance, all 5 products are squares.
+	 *
+	 * @param x
+	 *            The left hand side
+	 * @param y
+	 *            The right hand side
+	 * @return A new instance holding the product
+	 * @see <a href=
+	 *      "http://bodrato.it/papers/#WAIFI2007">Towards Optimal Toom-Cook
+	 *      Multiplication for Univariate and Multivariate Polynomials in
+	 *      Characteristic 2 and 0</a>
+	 */
+	private static BigNatural multiplyToomCook3(BigNatural x, BigNatural y) {
+		boolean square = x == y;
+		int k = (Math.max(x.len, y.len) + 2) / 3;
+
+		BigNatural x0 = x.slice(0, k);
+		BigNatural x1 = x.slice(k, 2 * k);
+		BigNatural x2 = x.slice(2 * k, x.len);
+		BigNatural y0 = square ? x0 : y.slice(0, k);
+		BigNatural y1 = square ? x1 : y.slice(k, 2 * k);
+		BigNatural y2 = square ? x2 : y.slice(2 * k, y.len);
+
+		// Value at 0
+		BigNatural v0 = multiplyOrSquare(x0, y0, square);
+
+		// Value at -1, as a magnitude and a sign
+		BigNatural dx = x2.add(x0);
+		BigNatural dy = square ? dx : y2.add(y0);
+		int cx = dx.compareTo(x1);
+		int cy = dy.compareTo(y1);
+		BigNatural vm1 = multiplyOrSquare(cx >= 0 ? dx.subtract(x1) : x1.subtract(dx),
+				cy >= 0 ? dy.subtract(y1) : y1.subtract(dy), square);
+		boolean vm1Negative = !square && (cx < 0) != (cy < 0);
+
+		// Value at 1
+		dx = dx.add(x1);
+		dy = square ? dx : dy.add(y1);
+		BigNatural v1 = multiplyOrSquare(dx, dy, square);
+
+		// Value at 2
+		BigNatural ex = dx.add(x2).shiftLeft(1).subtract(x0);
+		BigNatural ey = square ? ex : dy.add(y2).shiftLeft(1).subtract(y0);
+		BigNatural v2 = multiplyOrSquare(ex, ey, square);
+
+		// Value at infinity
+		BigNatural vinf = multiplyOrSquare(x2, y2, square);
+
+		// Interpolation
+		BigNatural t2 = (vm1Negative ? v2.add(vm1) : v2.subtract(vm1)).exactDivideBy3();
+		BigNatural tm1 = (vm1Negative ? v1.add(vm1) : v1.subtract(vm1)).shiftRight(1);
+		BigNatural t1 = v1.subtract(v0);
+		t2 = t2.subtract(t1).shiftRight(1);
+		t1 = t1.subtract(tm1).subtract(vinf);
+		t2 = t2.subtract(vinf.shiftLeft(1));
+		tm1 = tm1.subtract(t2);
+
+		int[] result = new int[x.len + y.len];
+		addShifted(result, v0, 0);
+		addShifted(result, tm1, k);
+		addShifted(result, t1, 2 * k);
+		addShifted(result, t2, 3 * k);
+		addShifted(result, vinf, 4 * k);
+
+		return new BigNatural(result, result.length);
+	}
+
+	/**
+	 * Returns x.y, or the square of x if square is true
+	 *
+	 * @param x
+	 *            The left hand side
+	 * @param y
+	 *            The right hand side, ignored if square is true
+	 * @param square
+	 *            Whether to square x
+	 * @return A new instance holding the product
+	 */
+	private static BigNatural multiplyOrSquare(BigNatural x, BigNatural y, boolean square) {
+		return square ? x.square() : x.multiply(y);
+	}
+
+	/**
+	 * Multiplies the limbs of x by the limbs of y using the schoolbook method
+	 * and stores the product into z. Each limb of x is multiplied by every limb
+	 * of y and accumulated into z, taking care of the carry generated.
+	 *
+	 * @param x
+	 *            Limbs of the left hand side
+	 * @param xlen
+	 *            Number of limbs of x in use
+	 * @param y
+	 *            Limbs of the right hand side
+	 * @param ylen
+	 *            Number of limbs of y in use
+	 * @param z
+	 *            Array of at least xlen + ylen limbs, all zero, to receive the
+	 *            product
+	 */
+	private static void multiplyToLen(int[] x, int xlen, int[] y, int ylen, int[] z) {
+		for (int i = 0; i < xlen; i++) {
+			long xi = x[i] & LONG_MASK;
+			long carry = 0;
+
+			// The sum of a limb product, an accumulated limb and a carry fits
+			// in 64 bits when treated as unsigned
+			for (int j = 0; j < ylen; j++) {
+				long p = xi * (y[j] & LONG_MASK) + (z[i + j] & LONG_MASK) + carry;
+				z[i + j] = (int) p;
+				carry = p >>> 32;
+			}
+
+			z[i + ylen] = (int) carry;
+		}
+	}
+
+	/**
+	 * Squares the limbs of x using the schoolbook method and stores the result
+	 * into z. Since x[i].x[j] and x[j].x[i] are equal, the products below the
+	 * diagonal are computed once and doubled by a 1 bit shift, and the squares
+	 * of the individual limbs on the diagonal are added afterwards. This takes
+	 * about half the limb multiplications of {@link #multiplyToLen}.
+	 *
+	 * @param x
+	 *            Limbs of the number
+	 * @param xlen
+	 *            Number of limbs of x in use
+	 * @param z
+	 *            Array of at least 2 * xlen limbs, all zero, to receive the
+	 *            square
+	 */
+	private static void squareToLen(int[] x, int xlen, int[] z) {
+		// Products x[i].x[j] for i < j
+		for (int i = 0; i < xlen - 1; i++) {
+			long xi = x[i] & LONG_MASK;
+			long carry = 0;
+
+			for (int j = i + 1; j < xlen; j++) {
+				long p = xi * (x[j] & LONG_MASK) + (z[i + j] & LONG_MASK) + carry;
+				z[i + j] = (int) p;
+				carry = p >>> 32;
+			}
+
+			z[i + xlen] = (int) carry;
+		}
+
+		// Double the off diagonal products
+		int last = 0;
+		for (int i = 0; i < 2 * xlen; i++) {
+			int limb = z[i];
+			z[i] = (limb << 1) | last;
+			last = limb >>> 31;
+		}
+
+		// Add the squares of the limbs on the diagonal
+		long carry = 0;
+		for (int i = 0; i < xlen; i++) {
+			long xi = x[i] & LONG_MASK;
+			long p = xi * xi;
+
+			long sum = (z[2 * i] & LONG_MASK) + (p & LONG_MASK) + carry;
+			z[2 * i] = (int) sum;
+			sum = (z[2 * i + 1] & LONG_MASK) + (p >>> 32) + (sum >>> 32);
+			z[2 * i + 1] = (int) sum;
+			carry = sum >>> 32;
+		}
+	}
+
+	/**
+	 * Adds the number v into the limbs of z, starting at limb offset. The
+	 * carry is propagated into the higher limbs of z, which must be large
+	 * enough to hold the sum.
+	 *
+	 * @param z
+	 *            The limbs to add into
+	 * @param v
+	 *            The number to add
+	 * @param offset
+	 *            Index of the limb of z which receives the least significant
+	 *            limb of v
+	 */
+	private static void addShifted(int[] z, BigNatural v, int offset) {
+		long carry = 0;
+		int i = 0;
+
+		for (; i < v.len; i++) {
+			long sum = (z[offset + i] & LONG_MASK) + (v.mag[i] & LONG_MASK) + carry;
+			z[offset + i] = (int) sum;
+			carry = sum >>> 32;
+		}
+
+		for (; carry != 0; i++) {
+			long sum = (z[offset + i] & LONG_MASK) + carry;
+			z[offset + i] = (int) sum;
+			carry = sum >>> 32;
+		}
+	}
+
+	/**
+	 * Returns the sum of this number and the number passed as parameter
+	 *
+	 * @param other
+	 *            The number to add
+	 * @return A new instance holding the sum
+	 */
+	BigNatural add(BigNatural other) {
+		BigNatural longer = len >= other.len ? this : other;
+		BigNatural shorter = len >= other.len ? other : this;
+
+		int[] result = Arrays.copyOf(longer.mag, longer.len + 1);
+		addShifted(result, shorter, 0);
+
+		return new BigNatural(result, result.length);
+	}
+
+	/**
+	 * Returns the difference of this number and the number passed as
+	 * parameter, which must not be greater than this number
+	 *
+	 * @param other
+	 *            The number to subtract
+	 * @return A new instance holding the difference
+	 * @throws ArithmeticException
+	 *             If other is greater than this number
+	 */
+	BigNatural subtract(BigNatural other) {
+		if (other.len > len)
+			throw new ArithmeticException("Negative difference");
+
+		int[] result = new int[len];
+		long borrow = 0;
+
+		for (int i = 0; i < len; i++) {
+			long diff = (mag[i] & LONG_MASK) - (i < other.len ? other.mag[i] & LONG_MASK : 0) - borrow;
+			result[i] = (int) diff;
+			borrow = diff >>> 63;
+		}
+
+		if (borrow != 0)
+			throw new ArithmeticException("Negative difference");
+
+		return new BigNatural(result, len);
+	}
+
+	/**
+	 * Compares this number with the number passed as parameter
+	 *
+	 * @param other
+	 *            The number to compare with
+	 * @return A negative value, zero or a positive value as this number is
+	 *         less than, equal to or greater than other
+	 */
+	int compareTo(BigNatural other) {
+		if (len != other.len)
+			return len < other.len ? -1 : 1;
+
+		for (int i = len - 1; i >= 0; i--)
+			if (mag[i] != other.mag[i])
+				return (mag[i] & LONG_MASK) < (other.mag[i] & LONG_MASK) ? -1 : 1;
+
+		return 0;
+	}
+
+	/**
+	 * Returns this number divided by 3, when this number is known to be a
+	 * multiple of 3. The division is exact, so it can be performed from the
+	 * least significant limb by multiplying with the inverse of 3 modulo
+	 * 2<sup>32</sup>, which is 0xAAAAAAAB, instead of dividing.
+	 *
+	 * @return A new instance holding the quotient
+	 */
+	private BigNatural exactDivideBy3() {
+		int[] result = new int[len];
+		long borrow = 0;
+
+		for (int i = 0; i < len; i++) {
+			long x = mag[i] & LONG_MASK;
+			long w = x - borrow;
+			borrow = borrow > x ? 1 : 0;
+
+			long q = (w * 0xAAAAAAABL) & LONG_MASK;
+			result[i] = (int) q;
+
+			// Borrow from the next limb whatever 3 * q exceeds the current one
+			if (q >= 0x55555556L) {
+				borrow++;
+				if (q >= 0xAAAAAAABL)
+					borrow++;
+			}
+		}
+
+		return new BigNatural(result, len);
+	}
+
+	/**
+	 * Returns a number made of the limbs from index from to index to,
+	 * exclusive, of this number. Limbs beyond the length of this number are
+	 * taken as zero.
+	 *
+	 * @param from
+	 *            Index of the first limb
+	 * @param to
+	 *            Index after the last limb
+	 * @return A new instance holding the limbs
+	 */
+	private BigNatural slice(int from, int to) {
+		to = Math.min(to, len);
+		if (from >= to)
+			return new BigNatural(new int[0], 0);
+
+		return new BigNatural(Arrays.copyOfRange(mag, from, to), to - from);
+	}
+
+	/**
+	 * Returns a new number equal to this number multiplied by 2 raised to the
+	 * power passed as parameter.
+	 *
+	 * @param bits
+	 *            Number of bits to shift left, must not be negative
+	 * @return A new instance holding the shifted value
+	 */
+	BigNatural shiftLeft(int bits) {
+		if (len == 0)
+			return this;
+
+		int limbShift = bits >>> 5;
+		int bitShift = bits & 31;
+		int[] result = new int[len + limbShift + 1];
+
+		if (bitShift == 0)
+			System.arraycopy(mag, 0, result, limbShift, len);
+		else {
+			// Each limb contributes its low bits to one limb and its high bits
+			// to the next one
+			int carry = 0;
+			for (int i = 0; i < len; i++) {
+				result[i + limbShift] = (mag[i] << bitShift) | carry;
+				carry = mag[i] >>> (32 - bitShift);
+			}
+			result[len + limbShift] = carry;
+		}
+
+		return new BigNatural(result, result.length);
+	}
+
+	/**
+	 * Returns a new number equal to this number divided by 2 raised to the
+	 * power passed as parameter, discarding the remainder.
+	 *
+	 * @param bits
+	 *            Number of bits to shift right, must not be negative
+	 * @return A new instance holding the shifted value
+	 */
+	BigNatural shiftRight(int bits) {
+		int limbShift = bits >>> 5;
+		int bitShift = bits & 31;
+
+		if (limbShift >= len)
+			return new BigNatural(new int[0], 0);
+
+		int[] result = new int[len - limbShift];
+
+		if (bitShift == 0)
+			System.arraycopy(mag, limbShift, result, 0, result.length);
+		else
+			// Each limb receives the high bits of one limb and the low bits of
+			// the next one
+			for (int i = 0; i < result.length; i++) {
+				int hi = i + limbShift + 1 < len ? mag[i + limbShift + 1] << (32 - bitShift) : 0;
+				result[i] = (mag[i + limbShift] >>> bitShift) | hi;
+			}
+
+		return new BigNatural(result, result.length);
+	}
+
+	/**
+	 * Returns the number of bits needed to represent this number, i.e. the
+	 * position of its most significant 1 bit plus one. Zero has a bit length of
+	 * zero.
+	 *
+	 * @return The bit length
+	 */
+	long bitLength() {
+		if (len == 0)
+			return 0;
+
+		return 32L * len - Integer.numberOfLeadingZeros(mag[len - 1]);
+	}
+
+	/**
+	 * Returns the number of limbs in use
+	 *
+	 * @return Number of limbs
+	 */
+	int limbCount() {
+		return len;
+	}
+
+	/**
+	 * Copies count limbs of this number, starting from limb from, into dst at
+	 * index off. Limbs above the number of limbs in use are copied as zeroes.
+	 *
+	 * @param from
+	 *            Index of the first limb to copy
+	 * @param dst
+	 *            Array to receive the limbs
+	 * @param off
+	 *            Index of dst receiving the first limb
+	 * @param count
+	 *            Number of limbs to copy
+	 */
+	void getLimbs(int from, int[] dst, int off, int count) {
+		int available = Math.max(Math.min(count, len - from), 0);
+
+		System.arraycopy(mag, from, dst, off, available);
+		Arrays.fill(dst, off + available, off + count, 0);
+	}
+
+	/**
+	 * Returns an estimate of the number of bytes of memory held by this
+	 * number, counting the object, the limb array and its unused capacity
+	 *
+	 * @return Estimated size in bytes
+	 */
+	long memorySize() {
+		// Object header and fields, then array header and limbs
+		return 16 + 16 + 4L * mag.length;
+	}
+
+	/**
+	 * Returns the value of this number as a long. The number must fit in 63
+	 * bits.
+	 *
+	 * @return The value of the number
+	 */
+	long longValue() {
+		long value = 0;
+		for (int i = Math.min(len, 2) - 1; i >= 0; i--)
+			value = (value << 32) | (mag[i] & LONG_MASK);
+
+		return value;
+	}
+
+	/**
+	 * Returns the decimal representation of this number, as converted by
+	 * {@link DecimalConverter#toDecimal(BigNatural)}.
+	 *
+	 * @return Decimal representation of the number
+	 */
+	@Override
+	public String toString() {
+		return DecimalConverter.toDecimal(this);
+	}
+
+	/**
+	 * Writes the decimal digits of this number into buf, so that the last
+	 * digit is stored at index end - 1. The limbs are repeatedly divided by
+	 * 10<sup>9</sup> and each remainder yields the next 9 decimal digits from
+	 * the right. The cost grows with the square of the number of limbs, so this
+	 * method is meant for small numbers only.
+	 *
+	 * @param buf
+	 *            Array to receive the digits
+	 * @param end
+	 *            Index after the last digit
+	 * @param width
+	 *            Minimum number of digits. Leading zeroes are added to reach
+	 *            this width.
+	 * @return Index of the first digit written
+	 */
+	int writeDecimal(char[] buf, int end, int width) {
+		int[] work = Arrays.copyOf(mag, len);
+		int wlen = len;
+		int pos = end;
+
+		while (wlen > 0) {
+			long rem = 0;
+
+			// Divide the working copy by 10^9 from the most significant limb.
+			// The remainder is below 2^30, so rem << 32 never overflows.
+			for (int i = wlen - 1; i >= 0; i--) {
+				long cur = (rem << 32) | (work[i] & LONG_MASK);
+				long q = cur / DECIMAL_BASE;
+				rem = cur - q * DECIMAL_BASE;
+				work[i] = (int) q;
+			}
+
+			while (wlen > 0 && work[wlen - 1] == 0)
+				wlen--;
+
+			// Write the 9 digits of the remainder, or only its significant
+			// digits if it is the most significant group
+			int g = (int) rem;
+			for (int j = 0; j < DECIMAL_BASE_DIGITS && (wlen > 0 || g != 0); j++) {
+				buf[--pos] = (char) ('0' + g % 10);
+				g /= 10;
+			}
+		}
+
+		// Pad with leading zeroes up to the requested width
+		while (end - pos < width)
+			buf[--pos] = '0';
+
+		return pos;
+	}
+
+	/**
+	 * Drops leading zero limbs by reducing {@link #len}
+	 */
+	private void normalize() {
+		while (len > 0 && mag[len - 1] == 0)
+			len--;
+	}
+}
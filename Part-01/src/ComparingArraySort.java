@@ -0,0 +1,425 @@
+import java.util.Comparator;
+
+/**
+ * <p>
+ * This class performs the analysis of {@link ArraySort} on arrays of any type.
+ * A subclass is provided for every type of array supported by
+ * {@link SortAnalysis}, whose scan compares the elements of its array
+ * directly, without boxing them or calling a comparison through an interface,
+ * so that every scan loop stays monomorphic and is compiled for its own type.
+ * </p>
+ * <p>
+ * The array is scanned once for descents, i.e. indexes k such that d[k] &gt;
+ * d[k + 1], and the scan records them by
+ * {@link #setDescents(int, int, int, boolean)}. Then the verdict is decided by
+ * {@link ArraySortAnalyzer#decide(DescentView, SortResult)}, this analysis
+ * being the view of the array. The verdict only compares a few elements,
+ * through {@link #compare(long, long)}.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see SortAnalysis
+ */
+abstract class ComparingArraySort implements SortAnalysis, DescentView {
+
+	/**
+	 * The verdict of the last analysis
+	 */
+	private final SortResult result;
+
+	/**
+	 * Index of the first descent
+	 */
+	private int first;
+
+	/**
+	 * Index of the last descent
+	 */
+	private int last;
+
+	/**
+	 * Number of descents
+	 */
+	private int count;
+
+	/**
+	 * true, if there is an ascent between the first and the last descent
+	 */
+	private boolean broken;
+
+	/**
+	 * Default constructor which initializes the instance variables
+	 */
+	ComparingArraySort() {
+		result = new SortResult();
+	}
+
+	/**
+	 * Scans the array for descents and records them by
+	 * {@link #setDescents(int, int, int, boolean)}
+	 */
+	abstract void scan();
+
+	/**
+	 * Records the descents found by {@link #scan()}
+	 *
+	 * @param first
+	 *            Index of the first descent, or -1
+	 * @param last
+	 *            Index of the last descent, or -1
+	 * @param count
+	 *            Number of descents
+	 * @param broken
+	 *            true, if there is an ascent between the first and the last
+	 *            descent
+	 */
+	final void setDescents(int first, int last, int count, boolean broken) {
+		this.first = first;
+		this.last = last;
+		this.count = count;
+		this.broken = broken;
+	}
+
+	@Override
+	public int getSortMethod() {
+		return result.getSortMethod();
+	}
+
+	@Override
+	public int getLIndex() {
+		return result.getLIndex();
+	}
+
+	@Override
+	public int getRIndex() {
+		return result.getRIndex();
+	}
+
+	/**
+	 * Scans the array for descents and decides the verdict, as
+	 * {@link ArraySort#analyzeArray()} does
+	 */
+	@Override
+	public final void analyzeArray() {
+		scan();
+
+		ArraySortAnalyzer.decide(this, result);
+	}
+
+	@Override
+	public final long descentCount() {
+		return count;
+	}
+
+	@Override
+	public final long firstDescent() {
+		return first;
+	}
+
+	@Override
+	public final long lastDescent() {
+		return last;
+	}
+
+	@Override
+	public final boolean isBroken() {
+		return broken;
+	}
+
+	/**
+	 * Analysis of an array of long
+	 */
+	static final class OfLong extends ComparingArraySort {
+
+		/**
+		 * The array
+		 */
+		private final long[] array;
+
+		/**
+		 * Constructor, to be called while creating the object of this class
+		 *
+		 * @param array
+		 *            The array
+		 */
+		OfLong(long[] array) {
+			this.array = array;
+		}
+
+		@Override
+		void scan() {
+			long[] a = array;
+			int first = -1;
+			int last = -1;
+			int count = 0;
+			boolean ascent = false;
+			boolean broken = false;
+
+			for (int k = 0; k + 1 < a.length; k++) {
+				if (a[k] > a[k + 1]) {
+					if (first < 0)
+						first = k;
+					else if (ascent)
+						broken = true;
+
+					last = k;
+					count++;
+				} else if (a[k] < a[k + 1] && first >= 0)
+					ascent = true;
+			}
+
+			setDescents(first, last, count, broken);
+		}
+
+		@Override
+		public long length() {
+			return array.length;
+		}
+
+		@Override
+		public int compare(long i, long j) {
+			return Long.compare(array[(int) i], array[(int) j]);
+		}
+	}
+
+	/**
+	 * Analysis of an array of double, ordered as by
+	 * {@link Double#compare(double, double)}
+	 */
+	static final class OfDouble extends ComparingArraySort {
+
+		/**
+		 * The array
+		 */
+		private final double[] array;
+
+		/**
+		 * Constructor, to be called while creating the object of this class
+		 *
+		 * @param array
+		 *            The array
+		 */
+		OfDouble(double[] array) {
+			this.array = array;
+		}
+
+		@Override
+		void scan() {
+			double[] a = array;
+			int first = -1;
+			int last = -1;
+			int count = 0;
+			boolean ascent = false;
+			boolean broken = false;
+
+			for (int k = 0; k + 1 < a.length; k++) {
+				int order = Double.compare(a[k], a[k + 1]);
+
+				if (order > 0) {
+					if (first < 0)
+						first = k;
+					else if (ascent)
+						broken = true;
+
+					last = k;
+					count++;
+				} else if (order < 0 && first >= 0)
+					ascent = true;
+			}
+
+			setDescents(first, last, count, broken);
+		}
+
+		@Override
+		public long length() {
+			return array.length;
+		}
+
+		@Override
+		public int compare(long i, long j) {
+			return Double.compare(array[(int) i], array[(int) j]);
+		}
+	}
+
+	/**
+	 * Analysis of an array of short
+	 */
+	static final class OfShort extends ComparingArraySort {
+
+		/**
+		 * The array
+		 */
+		private final short[] array;
+
+		/**
+		 * Constructor, to be called while creating the object of this class
+		 *
+		 * @param array
+		 *            The array
+		 */
+		OfShort(short[] array) {
+			this.array = array;
+		}
+
+		@Override
+		void scan() {
+			short[] a = array;
+			int first = -1;
+			int last = -1;
+			int count = 0;
+			boolean ascent = false;
+			boolean broken = false;
+
+			for (int k = 0; k + 1 < a.length; k++) {
+				if (a[k] > a[k + 1]) {
+					if (first < 0)
+						first = k;
+					else if (ascent)
+						broken = true;
+
+					last = k;
+					count++;
+				} else if (a[k] < a[k + 1] && first >= 0)
+					ascent = true;
+			}
+
+			setDescents(first, last, count, broken);
+		}
+
+		@Override
+		public long length() {
+			return array.length;
+		}
+
+		@Override
+		public int compare(long i, long j) {
+			return Short.compare(array[(int) i], array[(int) j]);
+		}
+	}
+
+	/**
+	 * Analysis of an array of byte
+	 */
+	static final class OfByte extends ComparingArraySort {
+
+		/**
+		 * The array
+		 */
+		private final byte[] array;
+
+		/**
+		 * Constructor, to be called while creating the object of this class
+		 *
+		 * @param array
+		 *            The array
+		 */
+		OfByte(byte[] array) {
+			this.array = array;
+		}
+
+		@Override
+		void scan() {
+			byte[] a = array;
+			int first = -1;
+			int last = -1;
+			int count = 0;
+			boolean ascent = false;
+			boolean broken = false;
+
+			for (int k = 0; k + 1 < a.length; k++) {
+				if (a[k] > a[k + 1]) {
+					if (first < 0)
+						first = k;
+					else if (ascent)
+						broken = true;
+
+					last = k;
+					count++;
+				} else if (a[k] < a[k + 1] && first >= 0)
+					ascent = true;
+			}
+
+			setDescents(first, last, count, broken);
+		}
+
+		@Override
+		public long length() {
+			return array.length;
+		}
+
+		@Override
+		public int compare(long i, long j) {
+			return Byte.compare(array[(int) i], array[(int) j]);
+		}
+	}
+
+	/**
+	 * Analysis of an array of objects ordered by a Comparator
+	 *
+	 * @param <T>
+	 *            Type of the elements
+	 */
+	static final class OfObject<T> extends ComparingArraySort {
+
+		/**
+		 * The array
+		 */
+		private final T[] array;
+
+		/**
+		 * The order of the elements
+		 */
+		private final Comparator<? super T> comparator;
+
+		/**
+		 * Constructor, to be called while creating the object of this class
+		 *
+		 * @param array
+		 *            The array
+		 * @param comparator
+		 *            The order of the elements
+		 */
+		OfObject(T[] array, Comparator<? super T> comparator) {
+			this.array = array;
+			this.comparator = comparator;
+		}
+
+		@Override
+		void scan() {
+			T[] a = array;
+			int first = -1;
+			int last = -1;
+			int count = 0;
+			boolean ascent = false;
+			boolean broken = false;
+
+			for (int k = 0; k + 1 < a.length; k++) {
+				int order = comparator.compare(a[k], a[k + 1]);
+
+				if (order > 0) {
+					if (first < 0)
+						first = k;
+					else if (ascent)
+						broken = true;
+
+					last = k;
+					count++;
+				} else if (order < 0 && first >= 0)
+					ascent = true;
+			}
+
+			setDescents(first, last, count, broken);
+		}
+
+		@Override
+		public long length() {
+			return array.length;
+		}
+
+		@Override
+		public int compare(long i, long j) {
+			return comparator.compare(array[(int) i], array[(int) j]);
+		}
+	}
+}
@@ -0,0 +1,340 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * This class converts a {@link BigNatural} into its decimal representation by
+ * means of divide and conquer. A number x with fewer than
+ * {@link #LEAF_LIMBS} limbs is converted directly by
+ * {@link BigNatural#writeDecimal(char[], int, int)}. A larger number is split
+ * as x = q.P + r, where P = 10<sup>D</sup> is a power from the table of powers
+ * with about half the bits of x. Then r is converted into exactly D digits with
+ * leading zeroes, q into the digits before it, and both halves are converted
+ * in the same manner.
+ * </p>
+ * <p>
+ * The powers P<sub>k</sub> = 10<sup>9 x 2<sup>k</sup></sup> are computed once
+ * by repeated squaring and kept for later conversions, together with the
+ * reciprocal of each power. The split is then a Barrett reduction, which costs
+ * 2 multiplications instead of a long division. With subquadratic
+ * multiplication, this makes the conversion subquadratic as well.
+ * </p>
+ * <p>
+ * Digits are written into a char array allocated once, whose length is an
+ * upper bound on the number of digits derived from the bit length of the
+ * number. Alternatively, since the upper digits are always produced before the
+ * lower digits, they can be streamed to a {@link DigitWriter} as they are
+ * produced, so that only the binary form of the number is held in memory.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see <a href="https://en.wikipedia.org/wiki/Barrett_reduction">Barrett
+ *      reduction</a>
+ */
+final class DecimalConverter {
+
+	/**
+	 * Number of limbs below which a number is converted directly
+	 */
+	static final int LEAF_LIMBS = 48;
+
+	/**
+	 * Upper bound of the base 10 logarithm of 2, used to estimate the number
+	 * of digits from the bit length
+	 */
+	private static final double LOG10_2 = 0.30103;
+
+	/**
+	 * Upper bound on the number of decimal digits of a number with fewer than
+	 * {@link #LEAF_LIMBS} limbs, estimated as by
+	 * {@link #estimateDigits(BigNatural)}
+	 */
+	static final int LEAF_DIGITS = (int) (32 * LEAF_LIMBS * LOG10_2) + 1;
+
+	/**
+	 * Table of powers, P<sub>k</sub> = 10<sup>9 x 2<sup>k</sup></sup>
+	 */
+	private static final List<BigNatural> POWERS = new ArrayList<>();
+
+	/**
+	 * Reciprocals of the powers, see {@link #reciprocal(BigNatural)}
+	 */
+	private static final List<BigNatural> RECIPROCALS = new ArrayList<>();
+
+	/**
+	 * Private constructor, this class is not meant to be instantiated
+	 */
+	private DecimalConverter() {
+	}
+
+	/**
+	 * Returns the decimal representation of the number passed as parameter
+	 *
+	 * @param x
+	 *            The number to convert
+	 * @return Decimal representation of the number
+	 */
+	static String toDecimal(BigNatural x) {
+		if (x.limbCount() == 0)
+			return "0";
+
+		int capacity = estimateDigits(x);
+		char[] buf = new char[capacity];
+
+		int start = write(x, buf, capacity, 0);
+
+		return new String(buf, start, capacity - start);
+	}
+
+	/**
+	 * Writes the decimal representation of the number passed as parameter to
+	 * a {@link DigitWriter}, from the most significant digit, and flushes the
+	 * writer.
+	 *
+	 * @param x
+	 *            The number to convert
+	 * @param out
+	 *            The destination of the digits
+	 * @throws IOException
+	 *             If the destination fails
+	 */
+	static void writeDecimal(BigNatural x, DigitWriter out) throws IOException {
+		// Zero is written as a single digit
+		writeDecimal(x, out, 1);
+	}
+
+	/**
+	 * Writes the decimal representation of the number passed as parameter to
+	 * a {@link DigitWriter} with leading zeroes up to the width passed as
+	 * parameter, and flushes the writer.
+	 *
+	 * @param x
+	 *            The number to convert
+	 * @param out
+	 *            The destination of the digits
+	 * @param width
+	 *            Minimum number of digits. Leading zeroes are added to reach
+	 *            this width.
+	 * @throws IOException
+	 *             If the destination fails
+	 */
+	static void writeDecimal(BigNatural x, DigitWriter out, long width) throws IOException {
+		write(x, out, width, new char[LEAF_DIGITS]);
+
+		out.flush();
+	}
+
+	/**
+	 * Returns an upper bound on the number of decimal digits of the number
+	 * passed as parameter
+	 *
+	 * @param x
+	 *            The number
+	 * @return Upper bound on the number of digits
+	 */
+	static int estimateDigits(BigNatural x) {
+		return (int) (x.bitLength() * LOG10_2) + 1;
+	}
+
+	/**
+	 * Writes the decimal digits of x into buf, so that the last digit is
+	 * stored at index end - 1, and returns the index of the first digit.
+	 *
+	 * @param x
+	 *            The number to convert
+	 * @param buf
+	 *            Array to receive the digits
+	 * @param end
+	 *            Index after the last digit
+	 * @param width
+	 *            Minimum number of digits. Leading zeroes are added to reach
+	 *            this width.
+	 * @return Index of the first digit written
+	 */
+	private static int write(BigNatural x, char[] buf, int end, int width) {
+		if (x.limbCount() < LEAF_LIMBS)
+			return x.writeDecimal(buf, end, width);
+
+		int k = selectPower(x);
+		int digits = 9 << k;
+
+		BigNatural[] qr = divide(x, k);
+
+		// The remainder fills exactly the lower digits, the quotient the rest
+		write(qr[1], buf, end, digits);
+
+		return write(qr[0], buf, end - digits, Math.max(width - digits, 0));
+	}
+
+	/**
+	 * Writes the decimal digits of x to a {@link DigitWriter}. Follows the same
+	 * recursion as {@link #write(BigNatural, char[], int, int)}, but the
+	 * quotient is written before the remainder, so that the digits come out in
+	 * order.
+	 *
+	 * @param x
+	 *            The number to convert
+	 * @param out
+	 *            The destination of the digits
+	 * @param width
+	 *            Minimum number of digits. Leading zeroes are added to reach
+	 *            this width.
+	 * @param scratch
+	 *            Array to convert small numbers into, of
+	 *            {@link #LEAF_DIGITS} chars
+	 * @throws IOException
+	 *             If the destination fails
+	 */
+	private static void write(BigNatural x, DigitWriter out, long width, char[] scratch) throws IOException {
+		if (x.limbCount() < LEAF_LIMBS) {
+			int start = x.writeDecimal(scratch, scratch.length, 0);
+			int digits = scratch.length - start;
+
+			out.writeZeros(width - digits);
+			out.write(scratch, start, digits);
+		} else {
+			int k = selectPower(x);
+			int digits = 9 << k;
+
+			BigNatural[] qr = divide(x, k);
+			x = null;
+
+			write(qr[0], out, width - digits, scratch);
+			qr[0] = null;
+
+			write(qr[1], out, digits, scratch);
+		}
+	}
+
+	/**
+	 * Returns the index of the smallest power P<sub>k</sub> for which x &lt;
+	 * 2<sup>2B</sup>, where B is the bit length of P<sub>k</sub>, computing
+	 * the powers up to it if needed. Since the bit length of the previous power
+	 * is less than half that of x, P<sub>k</sub> is less than x and the
+	 * quotient is never zero.
+	 *
+	 * @param x
+	 *            The number to split
+	 * @return Index of the power
+	 */
+	static int selectPower(BigNatural x) {
+		int k = 0;
+		while (2 * power(k).bitLength() < x.bitLength())
+			k++;
+
+		return k;
+	}
+
+	/**
+	 * Returns the quotient and the remainder of x divided by P<sub>k</sub>,
+	 * where x &lt; 2<sup>2B</sup> and B is the bit length of P<sub>k</sub>.
+	 * <p>
+	 * With mu = 2<sup>2B</sup> / P, the quotient is estimated as ((x &gt;&gt;
+	 * (B - 1)) . mu) &gt;&gt; (B + 1), which is at most 2 below the actual
+	 * quotient, and corrected by comparing the remainder with P.
+	 * </p>
+	 *
+	 * @param x
+	 *            The dividend
+	 * @param k
+	 *            Index of the divisor in the table of powers
+	 * @return An array holding the quotient and the remainder, in this order
+	 */
+	static BigNatural[] divide(BigNatural x, int k) {
+		BigNatural p = power(k);
+		BigNatural mu = reciprocalOfPower(k);
+		int b = (int) p.bitLength();
+
+		BigNatural q = x.shiftRight(b - 1).multiply(mu).shiftRight(b + 1);
+		BigNatural r = x.subtract(q.multiply(p));
+
+		while (r.compareTo(p) >= 0) {
+			r = r.subtract(p);
+			q = q.add(BigNatural.valueOf(1));
+		}
+
+		return new BigNatural[] { q, r };
+	}
+
+	/**
+	 * Returns the power P<sub>k</sub> = 10<sup>9 x 2<sup>k</sup></sup>,
+	 * computing it and all the smaller powers when called for the first time.
+	 *
+	 * @param k
+	 *            Index of the power
+	 * @return The power
+	 */
+	static synchronized BigNatural power(int k) {
+		if (POWERS.isEmpty())
+			POWERS.add(BigNatural.valueOf(1000000000L));
+
+		while (POWERS.size() <= k)
+			POWERS.add(POWERS.get(POWERS.size() - 1).square());
+
+		return POWERS.get(k);
+	}
+
+	/**
+	 * Returns the reciprocal of the power P<sub>k</sub>, computing it when
+	 * called for the first time.
+	 *
+	 * @param k
+	 *            Index of the power
+	 * @return The reciprocal, see {@link #reciprocal(BigNatural)}
+	 */
+	private static synchronized BigNatural reciprocalOfPower(int k) {
+		while (RECIPROCALS.size() <= k)
+			RECIPROCALS.add(reciprocal(power(RECIPROCALS.size())));
+
+		return RECIPROCALS.get(k);
+	}
+
+	/**
+	 * <p>
+	 * Returns 2<sup>2B</sup> / d, discarding the remainder, where B is the bit
+	 * length of d. The reciprocal is computed by Newton's iteration with
+	 * precision doubling. The reciprocal of the upper h = B / 2 + 8 bits of d
+	 * is computed recursively and scaled to B bits, and lowered so that it does
+	 * not exceed the actual reciprocal. One Newton step x + x.(2<sup>2B</sup> -
+	 * d.x) / 2<sup>2B</sup> then brings the error below 2, which is removed by
+	 * comparing the remainder with d.
+	 * </p>
+	 * <p>
+	 * Each level of recursion works on half the bits of the level above, so
+	 * the total cost is a small multiple of one multiplication of B bits.
+	 * </p>
+	 *
+	 * @param d
+	 *            The divisor, must be greater than 0
+	 * @return The reciprocal
+	 */
+	static BigNatural reciprocal(BigNatural d) {
+		int b = (int) d.bitLength();
+
+		// Small divisors are computed directly, 2^62 fits in a long
+		if (b <= 31)
+			return BigNatural.valueOf((1L << (2 * b)) / d.longValue());
+
+		int h = b / 2 + 8;
+		BigNatural power = BigNatural.valueOf(1).shiftLeft(2 * b);
+
+		// Initial estimate from the upper h bits of d
+		BigNatural x = reciprocal(d.shiftRight(b - h)).shiftLeft(b - h)
+				.subtract(BigNatural.valueOf(1).shiftLeft(b - h + 2));
+
+		// One Newton step, approaching the reciprocal from below
+		BigNatural e = power.subtract(d.multiply(x));
+		x = x.add(x.multiply(e).shiftRight(2 * b));
+
+		// Remove the remaining error
+		BigNatural r = power.subtract(d.multiply(x));
+		while (r.compareTo(d) >= 0) {
+			r = r.subtract(d);
+			x = x.add(BigNatural.valueOf(1));
+		}
+
+		return x;
+	}
+}
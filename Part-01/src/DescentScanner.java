@@ -0,0 +1,29 @@
+/**
+ * <p>
+ * A strategy computing the {@link DescentSummary} of a range of an array. The
+ * default strategy is the scalar loop of
+ * {@link DescentSummary#scan(int[], int, int)}, which uses
+ * VectorDescentScanner of folder src-vector instead when the Vector API is
+ * available.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see DescentSummary
+ */
+interface DescentScanner {
+
+	/**
+	 * Returns the summary of the pairs of neighbours of the elements from
+	 * index from to index to, exclusive
+	 *
+	 * @param a
+	 *            The array
+	 * @param from
+	 *            Index of the first element
+	 * @param to
+	 *            Index after the last element
+	 * @return The summary
+	 */
+	DescentSummary scan(int[] a, int from, int to);
+}
@@ -0,0 +1,225 @@
+/**
+ * <p>
+ * This class summarizes the order of the neighbouring elements of a range of an
+ * array, as needed by {@link ArraySort} to decide whether the array can be
+ * sorted by a swap or a reversal. A pair of neighbours (k, k + 1) is a descent
+ * if d[k] &gt; d[k + 1] and an ascent if d[k] &lt; d[k + 1]. A pair is
+ * identified by the index k of its first element. The summary holds :-
+ * <ul>
+ * <li>The first and the last descent, and the number of descents.</li>
+ * <li>The first and the last ascent.</li>
+ * <li>Whether there is an ascent between the first and the last descent.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * A summary of a whole array is enough for
+ * {@link ArraySortAnalyzer#decide(DescentView, SortResult)} to decide the
+ * verdict, together with the elements around the first and the last descent.
+ * </p>
+ * <p>
+ * The summaries of 2 adjacent ranges can be merged into the summary of the
+ * combined range by {@link #merge(DescentSummary, DescentSummary)}, so that
+ * the ranges can be scanned independently, for e.g. by {@link DescentTask}.
+ * </p>
+ * <p>
+ * Ranges of at least {@link #VECTOR_THRESHOLD} elements are scanned with SIMD
+ * instructions by VectorDescentScanner, found in folder src-vector, when the
+ * Vector API is available, i.e. when that folder is compiled and the JVM is
+ * started with the option --add-modules jdk.incubator.vector. Otherwise they
+ * are scanned by a scalar loop.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see DescentScanner
+ * @see DescentView
+ */
+final class DescentSummary {
+
+	/**
+	 * Maximum number of positions of descents which a swap can remove, i.e.
+	 * the pairs of neighbours of the 2 swapped elements. A sequence with more
+	 * descents cannot be sorted by a swap.
+	 */
+	static final int MAX_POSITIONS = 4;
+
+	/**
+	 * Smallest number of elements scanned by the vector scanner, below which
+	 * the scalar loop is faster
+	 */
+	static final int VECTOR_THRESHOLD = 64;
+
+	/**
+	 * Name of the class of the vector scanner
+	 */
+	private static final String VECTOR_SCANNER_CLASS = "VectorDescentScanner";
+
+	/**
+	 * The vector scanner, or null if the Vector API is not available
+	 */
+	private static final DescentScanner VECTOR_SCANNER = loadVectorScanner();
+
+	/**
+	 * Index of the first descent, or -1 if there is none
+	 */
+	final int first;
+
+	/**
+	 * Index of the last descent, or -1 if there is none
+	 */
+	final int last;
+
+	/**
+	 * Number of descents
+	 */
+	final int count;
+
+	/**
+	 * Index of the first ascent, or -1 if there is none
+	 */
+	final int firstAscent;
+
+	/**
+	 * Index of the last ascent, or -1 if there is none
+	 */
+	final int lastAscent;
+
+	/**
+	 * true, if there is an ascent between the first and the last descent
+	 */
+	final boolean broken;
+
+	/**
+	 * Constructor, to be called with the values of every field
+	 *
+	 * @param first
+	 *            Index of the first descent
+	 * @param last
+	 *            Index of the last descent
+	 * @param count
+	 *            Number of descents
+	 * @param firstAscent
+	 *            Index of the first ascent
+	 * @param lastAscent
+	 *            Index of the last ascent
+	 * @param broken
+	 *            true, if there is an ascent between the first and the last
+	 *            descent
+	 */
+	DescentSummary(int first, int last, int count, int firstAscent, int lastAscent, boolean broken) {
+		this.first = first;
+		this.last = last;
+		this.count = count;
+		this.firstAscent = firstAscent;
+		this.lastAscent = lastAscent;
+		this.broken = broken;
+	}
+
+	/**
+	 * Loads the vector scanner through reflection, so that this class does not
+	 * depend on module jdk.incubator.vector
+	 *
+	 * @return The vector scanner, or null if the Vector API is not available
+	 */
+	private static DescentScanner loadVectorScanner() {
+		try {
+			return Class.forName(VECTOR_SCANNER_CLASS).asSubclass(DescentScanner.class).getDeclaredConstructor()
+					.newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns true if ranges are scanned with SIMD instructions
+	 *
+	 * @return true, if the Vector API is available. Otherwise, false
+	 */
+	static boolean isVectorized() {
+		return VECTOR_SCANNER != null;
+	}
+
+	/**
+	 * Returns the summary of the pairs of neighbours of the elements from
+	 * index from to index to, exclusive, with the vector scanner if available
+	 * and the range is large enough, by {@link #scalarScan(int[], int, int)}
+	 * otherwise
+	 *
+	 * @param a
+	 *            The array
+	 * @param from
+	 *            Index of the first element
+	 * @param to
+	 *            Index after the last element
+	 * @return The summary
+	 */
+	static DescentSummary scan(int[] a, int from, int to) {
+		if (VECTOR_SCANNER != null && to - from >= VECTOR_THRESHOLD)
+			return VECTOR_SCANNER.scan(a, from, to);
+
+		return scalarScan(a, from, to);
+	}
+
+	/**
+	 * Returns the summary of the pairs of neighbours of the elements from
+	 * index from to index to, exclusive, by scanning them from left to right
+	 * one pair at a time
+	 *
+	 * @param a
+	 *            The array
+	 * @param from
+	 *            Index of the first element
+	 * @param to
+	 *            Index after the last element
+	 * @return The summary
+	 */
+	static DescentSummary scalarScan(int[] a, int from, int to) {
+		int first = -1;
+		int last = -1;
+		int count = 0;
+		int firstAscent = -1;
+		int lastAscent = -1;
+		boolean broken = false;
+
+		for (int k = from; k + 1 < to; k++)
+			if (a[k] > a[k + 1]) {
+				if (first < 0)
+					first = k;
+				else if (lastAscent > first)
+					broken = true;
+
+				last = k;
+				count++;
+			} else if (a[k] < a[k + 1]) {
+				if (firstAscent < 0)
+					firstAscent = k;
+				lastAscent = k;
+			}
+
+		return new DescentSummary(first, last, count, firstAscent, lastAscent, broken);
+	}
+
+	/**
+	 * Returns the summary of the pairs of neighbours of a range made of the
+	 * pairs summarized by left, followed by the pairs summarized by right
+	 *
+	 * @param left
+	 *            Summary of the pairs on the left
+	 * @param right
+	 *            Summary of the pairs on the right
+	 * @return The summary of all the pairs
+	 */
+	static DescentSummary merge(DescentSummary left, DescentSummary right) {
+		int first = (left.first >= 0) ? left.first : right.first;
+		int last = (right.last >= 0) ? right.last : left.last;
+
+		// An ascent of either side may lie between a descent on the left and
+		// a descent on the right
+		boolean broken = left.broken || right.broken
+				|| (left.first >= 0 && right.first >= 0 && (left.lastAscent > left.first
+						|| (right.firstAscent >= 0 && right.firstAscent < right.last)));
+
+		return new DescentSummary(first, last, left.count + right.count, (left.firstAscent >= 0) ? left.firstAscent : right.firstAscent,
+				(right.lastAscent >= 0) ? right.lastAscent : left.lastAscent, broken);
+	}
+}
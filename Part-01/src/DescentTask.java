@@ -0,0 +1,91 @@
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>
+ * A fork/join task which computes the {@link DescentSummary} of a range of an
+ * array. The range is split in halves until it contains no more than the leaf
+ * size of elements. Each leaf is scanned sequentially by
+ * {@link DescentSummary#scan(int[], int, int)} and the summaries are merged on
+ * the way back up, together with the pair of neighbours on the boundary of the
+ * 2 halves.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see <a href=
+ *      "https://docs.oracle.com/javase/7/docs/api/java/util/concurrent/RecursiveTask.html">java.util.concurrent.RecursiveTask</a>
+ */
+class DescentTask extends RecursiveTask<DescentSummary> {
+
+	/**
+	 * Serial version UID
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The array
+	 */
+	private final int[] array;
+
+	/**
+	 * Index of the first element of the range
+	 */
+	private final int from;
+
+	/**
+	 * Index after the last element of the range
+	 */
+	private final int to;
+
+	/**
+	 * Maximum number of elements scanned sequentially by a single task
+	 */
+	private final int leafSize;
+
+	/**
+	 * Constructor, to be called while creating the task
+	 *
+	 * @param array
+	 *            The array
+	 * @param from
+	 *            Index of the first element of the range
+	 * @param to
+	 *            Index after the last element of the range
+	 * @param leafSize
+	 *            Maximum number of elements scanned sequentially by a single
+	 *            task, must be at least 2
+	 */
+	DescentTask(int[] array, int from, int to, int leafSize) {
+		this.array = array;
+		this.from = from;
+		this.to = to;
+		this.leafSize = leafSize;
+	}
+
+	/**
+	 * Computes the summary of the range. A range larger than the leaf size is
+	 * split into 2 halves. The left half is forked while the right half is
+	 * computed by the current thread, and the 2 summaries are merged with the
+	 * summary of the pair on the boundary once both are available.
+	 *
+	 * @return Summary of the range
+	 */
+	@Override
+	protected DescentSummary compute() {
+		if (to - from <= leafSize)
+			return DescentSummary.scan(array, from, to);
+
+		int mid = (from + to) >>> 1;
+
+		DescentTask left = new DescentTask(array, from, mid, leafSize);
+		left.fork();
+
+		DescentSummary right = new DescentTask(array, mid, to, leafSize).compute();
+
+		// The pair made of the last element on the left and the first on the
+		// right
+		DescentSummary boundary = DescentSummary.scan(array, mid - 1, mid + 1);
+
+		return DescentSummary.merge(DescentSummary.merge(left.join(), boundary), right);
+	}
+}
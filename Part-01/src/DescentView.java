@@ -0,0 +1,102 @@
+/**
+ * <p>
+ * A view of a sequence through its descents, from which
+ * {@link ArraySortAnalyzer#decide(DescentView, SortResult)} decides whether
+ * the sequence is sorted, can be sorted by swapping 2 elements or by reversing
+ * a sub-segment. A pair of neighbours (k, k + 1) is a descent if d[k] &gt;
+ * d[k + 1] and an ascent if d[k] &lt; d[k + 1]. The view gives the number of
+ * descents, the first and the last descent and whether an ascent lies between
+ * them, and compares the elements given by their indexes, starting from 0.
+ * </p>
+ * <p>
+ * The verdict only compares the elements next to the left candidate, the
+ * first index of the run of equal elements ending at the first descent, and
+ * the right candidate, the last index of the run of equal elements starting
+ * after the last descent. The default methods find them by comparing the
+ * neighbours of the first and the last descent. A view which finds them
+ * faster, or which cannot compare other elements, overrides them.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see ArraySortAnalyzer
+ * @see DescentSummary
+ */
+interface DescentView {
+
+	/**
+	 * Returns the number of elements of the sequence
+	 *
+	 * @return Length of the sequence
+	 */
+	long length();
+
+	/**
+	 * Returns the number of descents
+	 *
+	 * @return Number of descents
+	 */
+	long descentCount();
+
+	/**
+	 * Returns the index of the first descent, if there is any
+	 *
+	 * @return Index of the first descent
+	 */
+	long firstDescent();
+
+	/**
+	 * Returns the index of the last descent, if there is any
+	 *
+	 * @return Index of the last descent
+	 */
+	long lastDescent();
+
+	/**
+	 * Returns true if there is an ascent between the first and the last
+	 * descent
+	 *
+	 * @return true, if an ascent lies between the descents. Otherwise, false
+	 */
+	boolean isBroken();
+
+	/**
+	 * Compares the elements at index i and j
+	 *
+	 * @param i
+	 *            Index of the first element
+	 * @param j
+	 *            Index of the second element
+	 * @return A negative value, zero or a positive value if the first element
+	 *         is less than, equal to or greater than the second element
+	 */
+	int compare(long i, long j);
+
+	/**
+	 * Returns the left candidate, the first index of the run of equal
+	 * elements ending at the first descent
+	 *
+	 * @return Index of the left candidate
+	 */
+	default long left() {
+		long x = firstDescent();
+		while (x > 0 && compare(x - 1, x) == 0)
+			x--;
+
+		return x;
+	}
+
+	/**
+	 * Returns the right candidate, the last index of the run of equal
+	 * elements starting after the last descent
+	 *
+	 * @return Index of the right candidate
+	 */
+	default long right() {
+		long y = lastDescent() + 1;
+		while (y + 1 < length() && compare(y, y + 1) == 0)
+			y++;
+
+		return y;
+	}
+}
@@ -0,0 +1,152 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * <p>
+ * This class receives decimal digits in chunks and passes them on to either an
+ * Appendable or a WritableByteChannel through a buffer of fixed size. It is
+ * used by {@link DecimalConverter} to stream the digits of a large number in
+ * order, from the most significant digit, without holding all of them in
+ * memory at once.
+ * </p>
+ * <p>
+ * Digits written to a channel are encoded as ASCII, one byte per digit.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see <a href=
+ *      "https://docs.oracle.com/javase/7/docs/api/java/lang/Appendable.html">java.lang.Appendable</a>
+ * @see <a href=
+ *      "https://docs.oracle.com/javase/7/docs/api/java/nio/channels/WritableByteChannel.html">java.nio.channels.WritableByteChannel</a>
+ */
+final class DigitWriter {
+
+	/**
+	 * Size of the buffer, in digits
+	 */
+	static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Destination of the digits, if writing to an Appendable
+	 */
+	private final Appendable appendable;
+
+	/**
+	 * Destination of the digits, if writing to a channel
+	 */
+	private final WritableByteChannel channel;
+
+	/**
+	 * Digits waiting to be written to an Appendable
+	 */
+	private final char[] chars;
+
+	/**
+	 * Digits waiting to be written to a channel
+	 */
+	private final ByteBuffer bytes;
+
+	/**
+	 * Number of digits in {@link #chars}
+	 */
+	private int count;
+
+	/**
+	 * Constructor, creates a writer which appends the digits to an Appendable
+	 *
+	 * @param out
+	 *            The destination of the digits
+	 */
+	DigitWriter(Appendable out) {
+		appendable = out;
+		channel = null;
+		chars = new char[BUFFER_SIZE];
+		bytes = null;
+		count = 0;
+	}
+
+	/**
+	 * Constructor, creates a writer which writes the digits to a channel
+	 *
+	 * @param out
+	 *            The destination of the digits
+	 */
+	DigitWriter(WritableByteChannel out) {
+		appendable = null;
+		channel = out;
+		chars = null;
+		bytes = ByteBuffer.allocate(BUFFER_SIZE);
+		count = 0;
+	}
+
+	/**
+	 * Writes len digits of src, starting at index off
+	 *
+	 * @param src
+	 *            Array of digits
+	 * @param off
+	 *            Index of the first digit
+	 * @param len
+	 *            Number of digits
+	 * @throws IOException
+	 *             If the destination fails
+	 */
+	void write(char[] src, int off, int len) throws IOException {
+		for (int i = off; i < off + len; i++)
+			put(src[i]);
+	}
+
+	/**
+	 * Writes the digit '0' as many times as specified by count
+	 *
+	 * @param count
+	 *            Number of zeroes
+	 * @throws IOException
+	 *             If the destination fails
+	 */
+	void writeZeros(long count) throws IOException {
+		for (long i = 0; i < count; i++)
+			put('0');
+	}
+
+	/**
+	 * Writes all the buffered digits to the destination
+	 *
+	 * @throws IOException
+	 *             If the destination fails
+	 */
+	void flush() throws IOException {
+		if (channel != null) {
+			bytes.flip();
+			while (bytes.hasRemaining())
+				channel.write(bytes);
+			bytes.clear();
+		} else if (count > 0) {
+			appendable.append(CharBuffer.wrap(chars, 0, count));
+			count = 0;
+		}
+	}
+
+	/**
+	 * Adds one digit to the buffer, flushing the buffer when it is full
+	 *
+	 * @param c
+	 *            The digit
+	 * @throws IOException
+	 *             If the destination fails
+	 */
+	private void put(char c) throws IOException {
+		if (channel != null) {
+			if (!bytes.hasRemaining())
+				flush();
+			bytes.put((byte) c);
+		} else {
+			if (count == chars.length)
+				flush();
+			chars[count++] = c;
+		}
+	}
+}
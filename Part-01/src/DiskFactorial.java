@@ -0,0 +1,649 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+
+/**
+ * <p>
+ * This class computes the factorial of very large numbers while keeping the
+ * running product in files on disk instead of the heap. The limbs of the
+ * running product are stored in little endian order, 4 bytes per limb, and
+ * accessed through memory mapped buffers. Only the odd parts of the integers
+ * are multiplied. The factors of 2 are applied when the result is read back.
+ * </p>
+ * <p>
+ * The integers are multiplied in batches. The product of a batch is computed
+ * in memory as a balanced product tree, with a size of about
+ * {@link #batchLimbs} limbs. Then the running product is multiplied by it out
+ * of core, block by block: each block of the running product is read,
+ * multiplied by the batch product and added to the carry left by the previous
+ * block. The lower limbs are written to the output file and the upper limbs
+ * become the carry of the next block. The running product alternates between
+ * 2 files, one read and one written by every pass.
+ * </p>
+ * <p>
+ * After every pass, the output file is forced to disk and a state file
+ * recording the next integer to multiply, the current file and its number of
+ * limbs is replaced atomically. The state is only written once the data it
+ * refers to is complete, so if the process is killed, the next call to
+ * {@link #compute(int)} on the same directory resumes from the last completed
+ * pass. The running product does not depend on the requested number, so a
+ * computation can also be resumed and extended to a larger number, but not
+ * reduced to a smaller one. A pass maps each file once, and forces the output
+ * file to disk once at its end.
+ * </p>
+ * <p>
+ * The decimal digits are produced out of core as well. The running product is
+ * shifted by the factors of 2 into a temporary file, which is then divided by
+ * a power P = 10<sup>D</sup> of about {@link #batchLimbs} limbs, block by
+ * block from the most significant block, the remainder of a block being
+ * carried into the next. Every such pass leaves the quotient in the other
+ * temporary file, and the D lower digits of the number, the remainder, in a
+ * file of digits. Once the quotient is small enough, it is converted in
+ * memory and written first, followed by the blocks of D digits of the file,
+ * from the last one.
+ * </p>
+ * <p>
+ * This class is not thread safe, and a directory must not be used by 2
+ * instances at the same time.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see Factorial#writeFactorial(int, OutputStream, Path)
+ * @see <a href=
+ *      "https://docs.oracle.com/javase/7/docs/api/java/nio/MappedByteBuffer.html">java.nio.MappedByteBuffer</a>
+ */
+public class DiskFactorial {
+
+	/**
+	 * Default value of {@link #batchLimbs}
+	 */
+	public static final int DEFAULT_BATCH_LIMBS = 1 << 16;
+
+	/**
+	 * Name of the state file
+	 */
+	private static final String STATE_FILE = "factorial.state";
+
+	/**
+	 * Name of the state file while it is being written
+	 */
+	private static final String STATE_TEMP_FILE = "factorial.state.tmp";
+
+	/**
+	 * Prefix of the names of the 2 files holding the running product
+	 */
+	private static final String LIMB_FILE_PREFIX = "factorial-";
+
+	/**
+	 * Suffix of the names of the 2 files holding the running product
+	 */
+	private static final String LIMB_FILE_SUFFIX = ".limbs";
+
+	/**
+	 * Prefix of the names of the 2 temporary files holding the quotients of
+	 * the decimal conversion
+	 */
+	private static final String QUOTIENT_FILE_PREFIX = "factorial-quotient-";
+
+	/**
+	 * Suffix of the names of the 2 temporary files holding the quotients of
+	 * the decimal conversion
+	 */
+	private static final String QUOTIENT_FILE_SUFFIX = ".tmp";
+
+	/**
+	 * Name of the temporary file holding the lower digits of the decimal
+	 * conversion
+	 */
+	private static final String DIGITS_FILE = "factorial-digits.tmp";
+
+	/**
+	 * Size of a limb in bytes
+	 */
+	private static final int LIMB_BYTES = 4;
+
+	/**
+	 * Number of limbs of a mapping. A mapping is limited to 2 GB, so larger
+	 * files are mapped in segments.
+	 */
+	private static final int SEGMENT_LIMBS = 1 << 28;
+
+	/**
+	 * Directory holding the files
+	 */
+	private final Path directory;
+
+	/**
+	 * Approximate number of limbs of the product of a batch, which is also the
+	 * number of limbs of the running product in a block
+	 */
+	private final int batchLimbs;
+
+	/**
+	 * Next integer to multiply
+	 */
+	private int next;
+
+	/**
+	 * Index of the file holding the running product, 0 or 1
+	 */
+	private int current;
+
+	/**
+	 * Number of limbs of the running product
+	 */
+	private long limbs;
+
+	/**
+	 * Constructor, creates an instance working in the directory passed as
+	 * parameter, with the default batch size
+	 *
+	 * @param directory
+	 *            Directory holding the files, which is created if needed
+	 */
+	public DiskFactorial(Path directory) {
+		this(directory, DEFAULT_BATCH_LIMBS);
+	}
+
+	/**
+	 * Constructor, creates an instance working in the directory passed as
+	 * parameter, with the batch size passed as parameter. Larger batches need
+	 * more memory but fewer passes over the files.
+	 *
+	 * @param directory
+	 *            Directory holding the files, which is created if needed
+	 * @param batchLimbs
+	 *            Approximate number of limbs of the product of a batch, from 1
+	 *            to 2<sup>24</sup>
+	 * @throws IllegalArgumentException
+	 *             If batchLimbs is out of range
+	 */
+	public DiskFactorial(Path directory, int batchLimbs) {
+		if (batchLimbs < 1 || batchLimbs > 1 << 24)
+			throw new IllegalArgumentException("Batch size must be from 1 to " + (1 << 24) + " limbs");
+
+		this.directory = directory;
+		this.batchLimbs = batchLimbs;
+	}
+
+	/**
+	 * Computes the odd part of the factorial of the number passed as parameter
+	 * into the files of the directory, resuming from the state file if there
+	 * is one.
+	 *
+	 * @param num
+	 *            An integer value to compute the factorial, must not be
+	 *            negative
+	 * @throws IOException
+	 *             If the files cannot be read or written
+	 * @throws IllegalArgumentException
+	 *             If num is negative
+	 * @throws IllegalStateException
+	 *             If the state file records a product beyond num, which
+	 *             cannot be reduced. The files of the directory must then be
+	 *             deleted to start again.
+	 */
+	public void compute(int num) throws IOException {
+		if (num < 0)
+			throw new IllegalArgumentException("Negative number " + num);
+
+		Files.createDirectories(directory);
+
+		if (!readState())
+			start();
+		else if ((long) next - 1 > num)
+			throw new IllegalStateException("The directory " + directory + " holds the product of the integers up to "
+					+ (next - 1) + ", beyond " + num);
+
+		while (next <= num) {
+			int hi = selectBatch(next, num);
+			BigNatural batch = ProductTask.sequentialProduct(next, hi, FactorialProgress.NONE);
+
+			int target = 1 - current;
+			limbs = multiplyPass(limbFile(current), limbs, batch, limbFile(target), 0);
+			current = target;
+			next = hi + 1;
+
+			writeState();
+
+			// The loop must terminate for num = Integer.MAX_VALUE
+			if (hi == num)
+				break;
+		}
+	}
+
+	/**
+	 * Computes the factorial of the number passed as parameter on disk, see
+	 * {@link #compute(int)}, and writes its decimal digits to out as ASCII
+	 * characters. The factorial is converted out of core, so that only a few
+	 * blocks of {@link #batchLimbs} limbs are held in memory at a time. The
+	 * temporary files of the conversion are deleted afterwards. The stream is
+	 * not closed.
+	 *
+	 * @param num
+	 *            An integer value to compute the factorial, must not be
+	 *            negative
+	 * @param out
+	 *            The destination of the digits
+	 * @throws IOException
+	 *             If the files cannot be read or written, or writing to out
+	 *             fails
+	 * @throws IllegalStateException
+	 *             If the state file records a product beyond num
+	 */
+	public void writeFactorial(int num, OutputStream out) throws IOException {
+		compute(num);
+
+		// Factors of 2 in num!
+		int twos = num - Integer.bitCount(num);
+
+		try {
+			// The whole limbs of the factors of 2 are zero limbs below the
+			// product, the remaining bits a small factor
+			long count = multiplyPass(limbFile(current), limbs, BigNatural.valueOf(1L << (twos & 31)),
+					quotientFile(0), twos >>> 5);
+
+			writeDecimal(count, Channels.newChannel(out));
+		} finally {
+			Files.deleteIfExists(quotientFile(0));
+			Files.deleteIfExists(quotientFile(1));
+			Files.deleteIfExists(directory.resolve(DIGITS_FILE));
+		}
+
+		out.flush();
+	}
+
+	/**
+	 * Writes the decimal digits of the number held in the first quotient file
+	 * to a channel, dividing it out of core until the quotient fits in memory.
+	 * See {@link DiskFactorial} for details.
+	 *
+	 * @param count
+	 *            Number of limbs of the number
+	 * @param out
+	 *            The destination of the digits
+	 * @throws IOException
+	 *             If the files cannot be read or written, or writing to out
+	 *             fails
+	 */
+	private void writeDecimal(long count, WritableByteChannel out) throws IOException {
+		// A block of the quotient must fit in fewer bits than the power
+		int k = 0;
+		while ((DecimalConverter.power(k).bitLength() - 1) / 32 < batchLimbs)
+			k++;
+
+		int blockLimbs = (int) ((DecimalConverter.power(k).bitLength() - 1) / 32);
+		int digits = 9 << k;
+
+		try (FileChannel lower = FileChannel.open(directory.resolve(DIGITS_FILE), StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			DigitWriter writer = new DigitWriter(lower);
+
+			int index = 0;
+			long chunks = 0;
+
+			// Above 2 blocks and 1 limb, the number is larger than the power
+			// and the quotient is never zero
+			while (count > 2L * blockLimbs + 1) {
+				count = dividePass(quotientFile(index), count, k, blockLimbs, quotientFile(1 - index), writer);
+				index = 1 - index;
+				chunks++;
+			}
+
+			BigNatural upper;
+			try (FileChannel in = FileChannel.open(quotientFile(index), StandardOpenOption.READ)) {
+				upper = new MappedLimbs(in, FileChannel.MapMode.READ_ONLY, count).read(0, (int) count);
+			}
+
+			DecimalConverter.writeDecimal(upper, new DigitWriter(out));
+
+			// The lower digits, from the last remainder
+			for (long chunk = chunks - 1; chunk >= 0; chunk--)
+				for (long pos = chunk * digits, end = pos + digits; pos < end;)
+					pos += lower.transferTo(pos, end - pos, out);
+		}
+	}
+
+	/**
+	 * Returns the largest integer hi &lt;= num such that the odd parts of the
+	 * integers from lo to hi have about {@link #batchLimbs} limbs
+	 *
+	 * @param lo
+	 *            The first integer of the batch
+	 * @param num
+	 *            The last integer to multiply
+	 * @return The last integer of the batch
+	 */
+	private int selectBatch(int lo, int num) {
+		double bits = 0;
+		double target = 32.0 * batchLimbs;
+
+		int hi = lo;
+		while (true) {
+			bits += Math.log(hi) / Math.log(2) - Integer.numberOfTrailingZeros(hi);
+
+			if (bits >= target || hi == num)
+				return hi;
+
+			hi++;
+		}
+	}
+
+	/**
+	 * Multiplies the running product held in a file by a factor and writes
+	 * the result to another file, block by block, shifted by a number of zero
+	 * limbs. The output file is forced to disk once at the end.
+	 *
+	 * @param source
+	 *            The file holding the running product
+	 * @param count
+	 *            Number of limbs of the running product
+	 * @param factor
+	 *            The factor
+	 * @param target
+	 *            The file to receive the result
+	 * @param shift
+	 *            Number of zero limbs written below the result
+	 * @return Number of limbs of the result, including the zero limbs
+	 * @throws IOException
+	 *             If the files cannot be read or written
+	 */
+	private long multiplyPass(Path source, long count, BigNatural factor, Path target, long shift)
+			throws IOException {
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE,
+						StandardOpenOption.CREATE)) {
+
+			MappedLimbs src = new MappedLimbs(in, FileChannel.MapMode.READ_ONLY, count);
+			MappedLimbs dst = new MappedLimbs(out, FileChannel.MapMode.READ_WRITE,
+					shift + count + factor.limbCount() + 1);
+
+			BigNatural zero = BigNatural.valueOf(0);
+			for (long pos = 0; pos < shift; pos += batchLimbs)
+				dst.write(pos, zero, 0, (int) Math.min(batchLimbs, shift - pos));
+
+			BigNatural carry = zero;
+
+			for (long pos = 0; pos < count; pos += batchLimbs) {
+				int size = (int) Math.min(batchLimbs, count - pos);
+
+				BigNatural product = src.read(pos, size).multiply(factor).add(carry);
+
+				// The lower limbs are final, the upper limbs overlap the next block
+				dst.write(shift + pos, product, 0, size);
+				carry = product.shiftRight(32 * size);
+			}
+
+			int rest = carry.limbCount();
+			dst.write(shift + count, carry, 0, rest);
+			dst.force();
+
+			long total = shift + count + rest;
+			out.truncate(total * LIMB_BYTES);
+
+			return total;
+		}
+	}
+
+	/**
+	 * Divides the number held in a file by the power P<sub>k</sub> of
+	 * {@link DecimalConverter}, block by block from the most significant
+	 * block, writes the quotient to another file and the digits of the
+	 * remainder to a {@link DigitWriter}. The remainder of a block is less than
+	 * the power and a block has fewer bits than the power, so that the
+	 * dividend of the next block fits the division of DecimalConverter.
+	 *
+	 * @param source
+	 *            The file holding the number
+	 * @param count
+	 *            Number of limbs of the number
+	 * @param k
+	 *            Index of the power
+	 * @param blockLimbs
+	 *            Number of limbs of a block, less than the bit length of the
+	 *            power divided by 32
+	 * @param target
+	 *            The file to receive the quotient
+	 * @param lower
+	 *            The destination of the digits of the remainder, 9 x
+	 *            2<sup>k</sup> digits with leading zeroes
+	 * @return Number of limbs of the quotient
+	 * @throws IOException
+	 *             If the files cannot be read or written
+	 */
+	private static long dividePass(Path source, long count, int k, int blockLimbs, Path target, DigitWriter lower)
+			throws IOException {
+		try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE,
+						StandardOpenOption.CREATE)) {
+
+			MappedLimbs src = new MappedLimbs(in, FileChannel.MapMode.READ_ONLY, count);
+			MappedLimbs dst = new MappedLimbs(out, FileChannel.MapMode.READ_WRITE, count);
+
+			BigNatural remainder = BigNatural.valueOf(0);
+			long quotient = 0;
+
+			for (long pos = (count - 1) / blockLimbs * blockLimbs; pos >= 0; pos -= blockLimbs) {
+				int size = (int) Math.min(blockLimbs, count - pos);
+
+				BigNatural[] qr = DecimalConverter.divide(remainder.shiftLeft(32 * size).add(src.read(pos, size)), k);
+
+				// The quotient of a block is less than 2^(32 x size)
+				dst.write(pos, qr[0], 0, size);
+				if (quotient == 0 && qr[0].limbCount() > 0)
+					quotient = pos + qr[0].limbCount();
+
+				remainder = qr[1];
+			}
+
+			DecimalConverter.writeDecimal(remainder, lower, 9L << k);
+
+			return quotient;
+		}
+	}
+
+	/**
+	 * Starts a new computation, with a running product of 1
+	 *
+	 * @throws IOException
+	 *             If the files cannot be written
+	 */
+	private void start() throws IOException {
+		next = 1;
+		current = 0;
+		limbs = 1;
+
+		try (FileChannel out = FileChannel.open(limbFile(current), StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			MappedLimbs dst = new MappedLimbs(out, FileChannel.MapMode.READ_WRITE, 1);
+			dst.write(0, BigNatural.valueOf(1), 0, 1);
+			dst.force();
+		}
+
+		writeState();
+	}
+
+	/**
+	 * Reads the state file, if it exists
+	 *
+	 * @return true if the state was read, else false
+	 * @throws IOException
+	 *             If the state file cannot be read
+	 */
+	private boolean readState() throws IOException {
+		Path path = directory.resolve(STATE_FILE);
+		if (!Files.exists(path))
+			return false;
+
+		Properties state = new Properties();
+		try (InputStream in = Files.newInputStream(path)) {
+			state.load(in);
+		}
+
+		next = Integer.parseInt(state.getProperty("next"));
+		current = Integer.parseInt(state.getProperty("current"));
+		limbs = Long.parseLong(state.getProperty("limbs"));
+
+		return true;
+	}
+
+	/**
+	 * Writes the state file. The state is written to a temporary file, which
+	 * is synchronized with the disk and then renamed to the state file, so
+	 * that the state file is always complete.
+	 *
+	 * @throws IOException
+	 *             If the state file cannot be written
+	 */
+	private void writeState() throws IOException {
+		Properties state = new Properties();
+		state.setProperty("next", Integer.toString(next));
+		state.setProperty("current", Integer.toString(current));
+		state.setProperty("limbs", Long.toString(limbs));
+
+		Path temp = directory.resolve(STATE_TEMP_FILE);
+		try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+			state.store(out, "Factorial computation state");
+			out.getFD().sync();
+		}
+
+		Files.move(temp, directory.resolve(STATE_FILE), StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Returns the path of one of the 2 files holding the running product
+	 *
+	 * @param index
+	 *            Index of the file, 0 or 1
+	 * @return The path
+	 */
+	private Path limbFile(int index) {
+		return directory.resolve(LIMB_FILE_PREFIX + index + LIMB_FILE_SUFFIX);
+	}
+
+	/**
+	 * Returns the path of one of the 2 temporary files holding the quotients
+	 * of the decimal conversion
+	 *
+	 * @param index
+	 *            Index of the file, 0 or 1
+	 * @return The path
+	 */
+	private Path quotientFile(int index) {
+		return directory.resolve(QUOTIENT_FILE_PREFIX + index + QUOTIENT_FILE_SUFFIX);
+	}
+
+	/**
+	 * The limbs of a file, mapped once in segments of {@link #SEGMENT_LIMBS}
+	 * limbs and read or written block by block
+	 */
+	private static final class MappedLimbs {
+
+		/**
+		 * The mapped segments
+		 */
+		private final MappedByteBuffer[] buffers;
+
+		/**
+		 * Little endian views of the segments
+		 */
+		private final IntBuffer[] segments;
+
+		/**
+		 * Constructor, maps the first limbs of a file, growing the file if
+		 * needed when mapping for writing
+		 *
+		 * @param channel
+		 *            The channel of the file
+		 * @param mode
+		 *            The mapping mode
+		 * @param count
+		 *            Number of limbs to map
+		 * @throws IOException
+		 *             If the file cannot be mapped
+		 */
+		MappedLimbs(FileChannel channel, FileChannel.MapMode mode, long count) throws IOException {
+			int n = (int) ((count + SEGMENT_LIMBS - 1) / SEGMENT_LIMBS);
+			buffers = new MappedByteBuffer[n];
+			segments = new IntBuffer[n];
+
+			for (int i = 0; i < n; i++) {
+				long pos = (long) i * SEGMENT_LIMBS;
+				long size = Math.min(SEGMENT_LIMBS, count - pos);
+
+				buffers[i] = channel.map(mode, pos * LIMB_BYTES, size * LIMB_BYTES);
+				segments[i] = buffers[i].order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+			}
+		}
+
+		/**
+		 * Reads limbs into a new number
+		 *
+		 * @param pos
+		 *            Index of the first limb
+		 * @param count
+		 *            Number of limbs
+		 * @return The number formed by the limbs
+		 */
+		BigNatural read(long pos, int count) {
+			int[] mag = new int[count];
+
+			for (int off = 0; off < count;) {
+				int index = (int) ((pos + off) % SEGMENT_LIMBS);
+				int size = Math.min(count - off, SEGMENT_LIMBS - index);
+
+				segments[(int) ((pos + off) / SEGMENT_LIMBS)].get(index, mag, off, size);
+				off += size;
+			}
+
+			return new BigNatural(mag, count);
+		}
+
+		/**
+		 * Writes limbs of a number
+		 *
+		 * @param pos
+		 *            Index of the first limb to write
+		 * @param x
+		 *            The number
+		 * @param from
+		 *            Index in x of the first limb
+		 * @param count
+		 *            Number of limbs
+		 */
+		void write(long pos, BigNatural x, int from, int count) {
+			int[] limbs = new int[count];
+			x.getLimbs(from, limbs, 0, count);
+
+			for (int off = 0; off < count;) {
+				int index = (int) ((pos + off) % SEGMENT_LIMBS);
+				int size = Math.min(count - off, SEGMENT_LIMBS - index);
+
+				segments[(int) ((pos + off) / SEGMENT_LIMBS)].put(index, limbs, off, size);
+				off += size;
+			}
+		}
+
+		/**
+		 * Forces the written limbs to disk
+		 */
+		void force() {
+			for (MappedByteBuffer buffer : buffers)
+				buffer.force();
+		}
+	}
+}
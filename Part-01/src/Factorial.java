@@ -1,8 +1,17 @@
-import java.util.Deque;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.InputMismatchException;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>
@@ -31,38 +40,228 @@ import java.util.Scanner;
  * numbers greater than 20, either of the two methods will return incorrect
  * results due to overflow. Overflow happens as the result of series of
  * multiplications producing large numbers sufficient to cross the storage limit
- * of the variable being used. On such occasions, the traditional method of
- * multiplication is adopted which helps to manage large values resulting from
- * multiplying large numbers. Also, this will help prevent overflow errors which
- * is common with the recursive call method.
+ * of the variable being used. On such occasions, the running product is kept
+ * in a {@link BigNatural}, an array of primitive 32 bit limbs, which helps to
+ * manage large values resulting from multiplying large numbers without boxing
+ * individual digits. Also, this will help prevent overflow errors which is
+ * common with the recursive call method.
+ * </p>
+ * <p>
+ * For large numbers the factors can also be multiplied by means of a balanced
+ * product tree which runs on a ForkJoinPool, see {@link #setParallelism(int)}
+ * and {@link #setParallelThreshold(int)}, or the factorial can be built from
+ * its prime factorization. The computation method is selected by the size of
+ * the number unless a strategy is passed to {@link #getFactorial(int, int)}.
+ * </p>
+ * <p>
+ * When the same instance is asked for many nearby numbers, a
+ * {@link FactorialCache} can be attached by {@link #setCache(FactorialCache)}
+ * so that each factorial is extended from a factorial computed earlier instead
+ * of being computed from the start.
+ * </p>
+ * <p>
+ * A factorial can also be computed in the background by
+ * {@link #submitFactorial(int)}, which returns a {@link FactorialJob} that
+ * can be cancelled, given a deadline and queried for its progress.
  * </p>
  * 
  * @author Murali
  * @version 1.0
- * @see <a href=
- *      "https://docs.oracle.com/javase/7/docs/api/java/util/LinkedList.html">java.util.LinkedList</a>
- * @see <a href=
- *      "https://docs.oracle.com/javase/7/docs/api/java/util/Deque.html">java.util.Deque</a>
- * @see <a href=
- *      "https://docs.oracle.com/javase/7/docs/api/java/util/List.html">java.util.List</a>
- * @see <a href=
- *      "https://docs.oracle.com/javase/7/docs/api/java/lang/Integer.html">java.lang.Integer</a>
+ * @see BigNatural
+ * @see ProductTask
+ * @see Primes
+ * @see FactorialCache
+ * @see FactorialJob
  * @see <a href=
  *      "https://docs.oracle.com/javase/7/docs/api/java/util/Scanner.html">java.util.Scanner</a>
+ * @see <a href=
+ *      "https://docs.oracle.com/javase/7/docs/api/java/util/concurrent/ForkJoinPool.html">java.util.concurrent.ForkJoinPool</a>
  */
 public class Factorial {
 
 	/**
-	 * Default Constructor
+	 * Strategy constant to let the computation method be selected by the size
+	 * of the number
+	 */
+	public static final int STRATEGY_AUTO = 0;
+
+	/**
+	 * Strategy constant to multiply the numbers one after another, see
+	 * {@link #complexFactorial(int, FactorialProgress)}
+	 */
+	public static final int STRATEGY_SEQUENTIAL = 1;
+
+	/**
+	 * Strategy constant to multiply the numbers as a balanced product tree on
+	 * a ForkJoinPool, see {@link #parallelFactorial(int, FactorialProgress)}
+	 */
+	public static final int STRATEGY_PRODUCT_TREE = 2;
+
+	/**
+	 * Strategy constant to build the factorial from its prime factorization,
+	 * see {@link #primeFactorial(int, FactorialProgress)}
+	 */
+	public static final int STRATEGY_PRIME_FACTORIZATION = 3;
+
+	/**
+	 * Smallest number for which {@link #STRATEGY_AUTO} selects a method other
+	 * than {@link #STRATEGY_SEQUENTIAL}
+	 */
+	public static final int PRIME_FACTORIZATION_THRESHOLD = 10000;
+
+	/**
+	 * Default value of {@link #parallelThreshold}
+	 */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 50000;
+
+	/**
+	 * Number of threads used to compute the product tree in parallel
+	 */
+	private int parallelism;
+
+	/**
+	 * Smallest number for which the product tree is computed in parallel
+	 */
+	private int parallelThreshold;
+
+	/**
+	 * Pool running the product tree tasks. Created when needed.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Cache of computed factorials, or null if caching is disabled
+	 */
+	private volatile FactorialCache cache;
+
+	/**
+	 * Executor running the jobs submitted by {@link #submitFactorial(int)}.
+	 * Created when needed.
+	 */
+	private Executor executor;
+
+	/**
+	 * Default Constructor, which initializes the instance variables. The
+	 * parallelism is set to the number of available processors and caching is
+	 * disabled.
 	 */
 	public Factorial() {
+		parallelism = Runtime.getRuntime().availableProcessors();
+		parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+		pool = null;
+		cache = null;
+		executor = null;
+	}
+
+	/**
+	 * Returns the number of threads used to compute large factorials
+	 * 
+	 * @return The parallelism
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Sets the number of threads used to compute large factorials. A value of
+	 * 1 disables the parallel product tree, so that every factorial is computed
+	 * sequentially.
+	 * 
+	 * @param parallelism
+	 *            Number of threads, must be greater than 0
+	 * @throws IllegalArgumentException
+	 *             If parallelism is less than 1
+	 */
+	public synchronized void setParallelism(int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be greater than 0");
+
+		// Discard the pool so that it is recreated with the new parallelism
+		if (pool != null && parallelism != this.parallelism) {
+			pool.shutdown();
+			pool = null;
+		}
+
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the smallest number for which the factorial is computed in
+	 * parallel
+	 * 
+	 * @return The parallel threshold
+	 */
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	/**
+	 * Sets the smallest number for which the factorial is computed in parallel.
+	 * Factorials of smaller numbers are computed sequentially by
+	 * {@link #complexFactorial(int, FactorialProgress)}, for which the cost of
+	 * splitting the work would outweigh the gain.
+	 * 
+	 * @param parallelThreshold
+	 *            The parallel threshold
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * Returns the cache of computed factorials
+	 * 
+	 * @return The cache, or null if caching is disabled
+	 */
+	public FactorialCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Sets the cache of computed factorials. When a cache is set, factorials
+	 * requested with {@link #STRATEGY_AUTO} are computed by
+	 * {@link #cachedFactorial(int, FactorialCache, FactorialProgress)}.
+	 * Factorials requested with any other strategy bypass the cache.
+	 * 
+	 * @param cache
+	 *            The cache, or null to disable caching
+	 */
+	public void setCache(FactorialCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Returns the executor running the jobs submitted by
+	 * {@link #submitFactorial(int)}. Unless an executor has been set, one is
+	 * created when called for the first time. It starts a virtual thread for
+	 * every job if the runtime supports virtual threads, else it runs the
+	 * jobs on a cached pool of daemon threads.
+	 * 
+	 * @return The executor
+	 */
+	public synchronized Executor getExecutor() {
+		if (executor == null)
+			executor = defaultExecutor();
+
+		return executor;
+	}
+
+	/**
+	 * Sets the executor running the jobs submitted by
+	 * {@link #submitFactorial(int)}. Jobs already submitted are not affected.
+	 * 
+	 * @param executor
+	 *            The executor, or null to use the default executor
+	 */
+	public synchronized void setExecutor(Executor executor) {
+		this.executor = executor;
 	}
 
 	/**
 	 * This method initiates the factorial computation process. Serves as an
-	 * interface to a caller. If the number passed as parameter is less than or
-	 * equal to 20, then method {@link #simpleFactorial(int)} is called. Else,
-	 * method {@link #complexFactorial(int)} is called by passing the parameter.
+	 * interface to a caller. The computation method is selected automatically
+	 * by calling {@link #getFactorial(int, int)} method with
+	 * {@link #STRATEGY_AUTO}.
 	 * 
 	 * @param num
 	 *            An integer value to compute the factorial. Although any number
@@ -72,18 +271,418 @@ public class Factorial {
 	 * @return The factorial of the integer passed as argument
 	 */
 	public String getFactorial(int num) {
-		String result = "";
+		return getFactorial(num, STRATEGY_AUTO);
+	}
+
+	/**
+	 * This method initiates the factorial computation process using the
+	 * computation method specified by the strategy parameter. If the number
+	 * passed as parameter is less than or equal to 20, then method
+	 * {@link #simpleFactorial(int)} is called irrespective of the strategy.
+	 * Forcing a strategy is mainly useful to compare the computation methods
+	 * against each other.
+	 * 
+	 * @param num
+	 *            An integer value to compute the factorial
+	 * @param strategy
+	 *            One of the strategy constants
+	 * @return The factorial of the integer passed as argument
+	 * @throws IllegalArgumentException
+	 *             If strategy is not one of the strategy constants
+	 */
+	public String getFactorial(int num, int strategy) {
+		return computeFactorial(num, strategy, FactorialProgress.NONE).toString();
+	}
+
+	/**
+	 * Computes the binomial coefficient C(n, k) = n! / (k! x (n - k)!), the
+	 * number of ways to choose k elements out of n. The factorials are never
+	 * computed. Instead, the exponent of each prime p &lt;= n in the result is
+	 * obtained by Legendre's formula as the exponent in n! minus the exponents
+	 * in k! and (n - k)!, and the prime powers are multiplied by
+	 * {@link Primes#powerProduct}.
+	 * 
+	 * @param n
+	 *            Number of elements, must not be negative
+	 * @param k
+	 *            Number of elements chosen. The result is 0 if k is negative
+	 *            or greater than n.
+	 * @return The binomial coefficient
+	 * @throws IllegalArgumentException
+	 *             If n is negative
+	 */
+	public String binomial(int n, int k) {
+		if (n < 0)
+			throw new IllegalArgumentException("Negative number " + n);
+
+		if (k < 0 || k > n)
+			return "0";
+
+		int[] primes = Primes.sieve(n);
+		int[] exponents = new int[primes.length];
+
+		for (int i = 0; i < primes.length; i++)
+			exponents[i] = Primes.legendre(n, primes[i]) - Primes.legendre(k, primes[i])
+					- Primes.legendre(n - k, primes[i]);
+
+		return primePowerProduct(primes, exponents, FactorialProgress.NONE).toString();
+	}
+
+	/**
+	 * Computes the multinomial coefficient (k1 + k2 + ... + km)! / (k1! x k2!
+	 * x ... x km!), the number of ways to split k1 + k2 + ... + km elements
+	 * into groups of k1, k2, ... km elements. As in
+	 * {@link #binomial(int, int)}, the result is built from the exponents of
+	 * its prime factors without computing any factorial.
+	 * 
+	 * @param ks
+	 *            The sizes of the groups, must not be negative
+	 * @return The multinomial coefficient
+	 * @throws IllegalArgumentException
+	 *             If any of the sizes is negative or their sum exceeds
+	 *             Integer.MAX_VALUE
+	 */
+	public String multinomial(int... ks) {
+		long sum = 0;
+		for (int k : ks) {
+			if (k < 0)
+				throw new IllegalArgumentException("Negative number " + k);
+
+			sum += k;
+		}
+
+		if (sum > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Sum of the numbers exceeds " + Integer.MAX_VALUE);
+
+		int n = (int) sum;
+		int[] primes = Primes.sieve(n);
+		int[] exponents = new int[primes.length];
+
+		for (int i = 0; i < primes.length; i++) {
+			exponents[i] = Primes.legendre(n, primes[i]);
+
+			for (int k : ks)
+				exponents[i] -= Primes.legendre(k, primes[i]);
+		}
+
+		return primePowerProduct(primes, exponents, FactorialProgress.NONE).toString();
+	}
+
+	/**
+	 * <p>
+	 * Computes the double factorial n!! = n x (n - 2) x (n - 4) x ..., the
+	 * product of the integers from 1 to n with the same parity as n. By
+	 * convention 0!! = (-1)!! = 1. The result is built from the exponents of
+	 * its prime factors :-
+	 * </p>
+	 * <ul>
+	 * <li>If n = 2m is even, n!! = 2<sup>m</sup> x m!.</li>
+	 * <li>If n = 2m + 1 is odd, n!! = n! / (2<sup>m</sup> x m!), so the
+	 * exponent of each odd prime is its exponent in n! minus its exponent in
+	 * m!, and the exponent of 2 is zero.</li>
+	 * </ul>
+	 * 
+	 * @param n
+	 *            An integer value, must be greater than or equal to -1
+	 * @return The double factorial of n
+	 * @throws IllegalArgumentException
+	 *             If n is less than -1
+	 */
+	public String doubleFactorial(int n) {
+		if (n < -1)
+			throw new IllegalArgumentException("Number must be greater than or equal to -1");
+
+		int m = n >>> 1;
+		boolean odd = (n & 1) != 0;
+
+		int[] primes = Primes.sieve(odd ? n : m);
+		int[] exponents = new int[primes.length];
+
+		for (int i = 0; i < primes.length; i++)
+			if (odd)
+				exponents[i] = (i == 0) ? 0 : Primes.legendre(n, primes[i]) - Primes.legendre(m, primes[i]);
+			else
+				exponents[i] = Primes.legendre(m, primes[i]);
+
+		BigNatural result = primePowerProduct(primes, exponents, FactorialProgress.NONE);
+
+		return (odd ? result : result.shiftLeft(m)).toString();
+	}
+
+	/**
+	 * <p>
+	 * Computes the factorials of all the numbers passed as parameter and
+	 * returns them in the same order as the numbers. The numbers are processed
+	 * in ascending order. The factorial of the smallest number is computed by
+	 * the method selected with {@link #STRATEGY_AUTO}, and every other
+	 * factorial is obtained by multiplying the previous one with the product
+	 * of the integers in between, which is computed as a balanced product
+	 * tree. Repeated numbers are computed only once.
+	 * </p>
+	 * <p>
+	 * Thus the integers up to the largest number are multiplied once for the
+	 * whole batch, instead of once for every number.
+	 * </p>
+	 * 
+	 * @param nums
+	 *            Integer values to compute the factorial
+	 * @return The factorials of the integers passed as argument, in the same
+	 *         order
+	 * @throws IllegalArgumentException
+	 *             If any of the numbers is negative
+	 */
+	public String[] getFactorials(int[] nums) {
+		String[] results = new String[nums.length];
+
+		// Sort the indexes by number, each number in the upper 32 bits and its
+		// index in the lower 32 bits
+		long[] order = new long[nums.length];
+		for (int i = 0; i < nums.length; i++) {
+			if (nums[i] < 0)
+				throw new IllegalArgumentException("Negative number " + nums[i] + " at index " + i);
+
+			order[i] = (long) nums[i] << 32 | i;
+		}
+
+		Arrays.sort(order);
+
+		BigNatural factorial = null;
+		int previous = -1;
+		String digits = null;
+
+		for (long entry : order) {
+			int num = (int) (entry >>> 32);
+
+			if (num != previous) {
+				if (factorial == null || previous <= 20)
+					factorial = computeFactorial(num, STRATEGY_AUTO, FactorialProgress.NONE);
+				else
+					factorial = factorial.multiply(rangeProduct(previous + 1, num, FactorialProgress.NONE));
+
+				previous = num;
+				digits = factorial.toString();
+			}
+
+			results[(int) entry] = digits;
+		}
+
+		return results;
+	}
+
+	/**
+	 * Submits the computation of the factorial of a number passed as parameter
+	 * to the executor of this instance and returns immediately. The returned
+	 * job holds a CompletableFuture which is completed with the digits of the
+	 * factorial, and reports the progress of the computation. The factorial
+	 * is computed with {@link #STRATEGY_AUTO}, using the cache, the parallel
+	 * threshold and the pool of this instance. Cancelling the job stops it
+	 * after the leaf or the large multiplication in progress, see
+	 * {@link FactorialJob}.
+	 * 
+	 * @param num
+	 *            An integer value to compute the factorial, must not be
+	 *            negative
+	 * @return The job computing the factorial
+	 * @throws IllegalArgumentException
+	 *             If num is negative
+	 * @see #getExecutor()
+	 */
+	public FactorialJob submitFactorial(int num) {
+		if (num < 0)
+			throw new IllegalArgumentException("Negative number " + num);
+
+		FactorialJob job = new FactorialJob(this, num);
+
+		try {
+			getExecutor().execute(job::run);
+		} catch (RejectedExecutionException e) {
+			job.getFuture().completeExceptionally(e);
+		}
+
+		return job;
+	}
+
+	/**
+	 * Submits the computation of the factorial of a number passed as
+	 * parameter, as {@link #submitFactorial(int)}, with a deadline. If the
+	 * computation is not complete when the timeout expires, the future of the
+	 * job is completed with a TimeoutException and the computation stops.
+	 * 
+	 * @param num
+	 *            An integer value to compute the factorial, must not be
+	 *            negative
+	 * @param timeout
+	 *            Time allowed for the computation
+	 * @param unit
+	 *            Unit of the timeout
+	 * @return The job computing the factorial
+	 * @throws IllegalArgumentException
+	 *             If num is negative
+	 */
+	public FactorialJob submitFactorial(int num, long timeout, TimeUnit unit) {
+		FactorialJob job = submitFactorial(num);
+		job.getFuture().orTimeout(timeout, unit);
+
+		return job;
+	}
+
+	/**
+	 * Computes the factorial of a number passed as parameter and appends its
+	 * decimal digits to out. The digits are produced in chunks, from the most
+	 * significant digit, while the factorial is held only in binary form. No
+	 * String holding all the digits is created.
+	 * 
+	 * @param num
+	 *            An integer value to compute the factorial
+	 * @param out
+	 *            The destination of the digits, for e.g. a Writer or a
+	 *            StringBuilder
+	 * @throws IOException
+	 *             If out fails to append the digits
+	 * @see <a href=
+	 *      "https://docs.oracle.com/javase/7/docs/api/java/lang/Appendable.html">java.lang.Appendable</a>
+	 */
+	public void writeFactorial(int num, Appendable out) throws IOException {
+		BigNatural result = computeFactorial(num, STRATEGY_AUTO, FactorialProgress.NONE);
+
+		DecimalConverter.writeDecimal(result, new DigitWriter(out));
+	}
+
+	/**
+	 * Computes the factorial of a number passed as parameter and writes its
+	 * decimal digits to out as ASCII characters. The digits are produced in
+	 * chunks, from the most significant digit, and written through a
+	 * WritableByteChannel over out, while the factorial is held only in binary
+	 * form. The stream is not closed.
+	 * 
+	 * @param num
+	 *            An integer value to compute the factorial
+	 * @param out
+	 *            The destination of the digits, for e.g. a FileOutputStream
+	 * @throws IOException
+	 *             If writing to out fails
+	 * @see <a href=
+	 *      "https://docs.oracle.com/javase/7/docs/api/java/nio/channels/Channels.html">java.nio.channels.Channels</a>
+	 */
+	public void writeFactorial(int num, OutputStream out) throws IOException {
+		BigNatural result = computeFactorial(num, STRATEGY_AUTO, FactorialProgress.NONE);
+
+		DecimalConverter.writeDecimal(result, new DigitWriter(Channels.newChannel(out)));
+		out.flush();
+	}
+
+	/**
+	 * Computes the factorial of a number passed as parameter with the running
+	 * product kept in files of the directory passed as parameter instead of
+	 * the heap, and writes its decimal digits to out as ASCII characters. The
+	 * computation is checkpointed after every batch of factors, so that if it
+	 * is interrupted, calling this method again with the same directory
+	 * resumes it. See {@link DiskFactorial} for details.
+	 * 
+	 * @param num
+	 *            An integer value to compute the factorial
+	 * @param out
+	 *            The destination of the digits
+	 * @param directory
+	 *            Directory holding the running product and the checkpoint
+	 * @throws IOException
+	 *             If the files cannot be read or written, or writing to out
+	 *             fails
+	 */
+	public void writeFactorial(int num, OutputStream out, Path directory) throws IOException {
+		new DiskFactorial(directory).writeFactorial(num, out);
+	}
+
+	/**
+	 * Computes the factorial of a number passed as parameter using the
+	 * computation method specified by the strategy parameter. When the
+	 * strategy is {@link #STRATEGY_AUTO}, the method is selected by the size of
+	 * the number as follows :-
+	 * <ul>
+	 * <li>Below {@link #PRIME_FACTORIZATION_THRESHOLD}, method
+	 * {@link #complexFactorial(int, FactorialProgress)} is called.</li>
+	 * <li>If the number is at least the parallel threshold and the parallelism
+	 * is greater than 1, method
+	 * {@link #parallelFactorial(int, FactorialProgress)} is called.</li>
+	 * <li>Else, method {@link #primeFactorial(int, FactorialProgress)} is
+	 * called.</li>
+	 * </ul>
+	 * 
+	 * @param num
+	 *            An integer value to compute the factorial
+	 * @param strategy
+	 *            One of the strategy constants
+	 * @param progress
+	 *            The progress of the computation
+	 * @return The factorial of the integer passed as argument
+	 * @throws IllegalArgumentException
+	 *             If strategy is not one of the strategy constants
+	 */
+	private BigNatural computeFactorial(int num, int strategy, FactorialProgress progress) {
+		FactorialCache cache = this.cache;
+		if (strategy == STRATEGY_AUTO && cache != null && num > 20)
+			return cachedFactorial(num, cache, progress);
+
+		if (strategy == STRATEGY_AUTO)
+			strategy = selectStrategy(num);
+
+		BigNatural result = null;
 
 		if (num <= 20)
 			// If param <= 20, use recursive method to compute factorial
-			result = Long.toString(simpleFactorial(num));
+			result = BigNatural.valueOf(simpleFactorial(num));
 		else
-			// If param > 20, use advanced computation method
-			result = complexFactorial(num);
+			switch (strategy) {
+			case STRATEGY_SEQUENTIAL:
+				result = complexFactorial(num, progress);
+				break;
+			case STRATEGY_PRODUCT_TREE:
+				result = parallelFactorial(num, progress);
+				break;
+			case STRATEGY_PRIME_FACTORIZATION:
+				result = primeFactorial(num, progress);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown strategy " + strategy);
+			}
 
 		return result;
 	}
 
+	/**
+	 * Computes the factorial of a number passed as parameter with
+	 * {@link #STRATEGY_AUTO}, for the jobs of {@link #submitFactorial(int)}.
+	 * The multiplications are reported to progress, which stops the
+	 * computation by throwing a CancellationException once it is cancelled.
+	 * 
+	 * @param num
+	 *            An integer value to compute the factorial
+	 * @param progress
+	 *            The progress of the computation
+	 * @return The factorial of the integer passed as argument
+	 */
+	BigNatural computeFactorial(int num, FactorialProgress progress) {
+		return computeFactorial(num, STRATEGY_AUTO, progress);
+	}
+
+	/**
+	 * Returns the computation method selected by {@link #STRATEGY_AUTO} for
+	 * the number passed as parameter, as described in
+	 * {@link #computeFactorial(int, int, FactorialProgress)}
+	 * 
+	 * @param num
+	 *            An integer value to compute the factorial
+	 * @return One of the strategy constants other than {@link #STRATEGY_AUTO}
+	 */
+	private int selectStrategy(int num) {
+		if (num < PRIME_FACTORIZATION_THRESHOLD)
+			return STRATEGY_SEQUENTIAL;
+		else if (num >= parallelThreshold && parallelism > 1)
+			return STRATEGY_PRODUCT_TREE;
+		else
+			return STRATEGY_PRIME_FACTORIZATION;
+	}
+
 	/**
 	 * Computes and returns the factorial of a number passed as parameter using
 	 * the recursive call method. This method works well within parameter range
@@ -108,217 +707,330 @@ public class Factorial {
 	 * the number passed as parameter is greater than 20, to improve
 	 * performance, it first computes factorial of 20 by calling
 	 * {@link #simpleFactorial(int)} method, which computes factorial by
-	 * recursive call method. Then it performs a series of multiplications based
-	 * on traditional method where 2 numbers are multiplied by multiplying
-	 * individual digits and adding up the numbers obtained as a result of
-	 * multiplication. This method utilizes java.util.LinkedList class.
+	 * recursive call method. Then it performs a series of multiplications on a
+	 * {@link BigNatural}, which stores the running product as an array of
+	 * primitive 32 bit limbs.
 	 * </p>
 	 * <p>
-	 * java.util.LinkedList is a list data structure which acts as a List,
-	 * Dequeue (Double ended queue) and a Stack. It is used to store large
-	 * values generated as a result of multiplying large numbers. This method of
-	 * multiplication guarantees accuracy of the result produced.
+	 * Consecutive factors are packed together as long as their product fits
+	 * in a single limb, so that the large running product is traversed once
+	 * for every group of factors instead of once for every factor. The product
+	 * is updated in place and only grows its limb array when it runs out of
+	 * space. Every integer counts as one multiplication of the progress,
+	 * reported when its group is multiplied.
 	 * </p>
 	 * 
 	 * @param num
 	 *            An integer value to compute the factorial
+	 * @param progress
+	 *            The progress of the computation
 	 * @return The factorial of the number passed as parameter.
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/util/LinkedList.html">java.util.LinkedList</a>
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/util/Deque.html">java.util.Deque</a>
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/util/List.html">java.util.List</a>
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/lang/Integer.html">java.lang.Integer</a>
 	 */
-	private String complexFactorial(int num) {
+	private BigNatural complexFactorial(int num, FactorialProgress progress) {
+		progress.expect(num - 20);
+
 		// First, compute the factorial of 20
-		long fact20 = simpleFactorial(20);
+		BigNatural product = BigNatural.valueOf(simpleFactorial(20));
+
+		// Factors packed together, to be multiplied in one pass
+		long packed = 1;
+
+		// The first integer of the packed factors
+		int flushed = 21;
 
-		// Convert to List structure
-		List<Integer> intList = toList(fact20);
+		// Factors of 2 are collected separately and applied as a single shift
+		int twos = 0;
 
 		// Start a loop from 21 and perform multiplications until the value
 		// passed as parameter
-		for (int i = 21; i <= num; i++)
-			intList = multiply(intList, toList(i));
+		for (int i = 21; i <= num; i++) {
+			int zeros = Integer.numberOfTrailingZeros(i);
+			long odd = i >>> zeros;
+			twos += zeros;
+
+			// Flush the packed factors once the next factor does not fit
+			if (packed * odd > BigNatural.LONG_MASK) {
+				product.multiplyInPlace((int) packed);
+				packed = 1;
+
+				progress.advance(i - flushed);
+				flushed = i;
+			}
 
-		// Instantiate a StringBuilder class
-		StringBuilder sb = new StringBuilder();
+			packed *= odd;
+		}
 
-		// Populate StringBuilder object with the final result
-		for (Integer i : intList)
-			sb.append(Integer.toString(i));
+		product.multiplyInPlace((int) packed);
+		progress.advance((long) num + 1 - flushed);
 
-		return sb.toString();
+		return product.shiftLeft(twos);
 	}
 
 	/**
-	 * Returns a list of Integer objects after converting the number passed as
-	 * parameter. The list return is an instance of java.util.LinkedList class.
+	 * <p>
+	 * Computes and returns the factorial of a number passed as parameter by
+	 * means of a balanced product tree. The integers from 21 to num are split
+	 * recursively into sub ranges by {@link ProductTask}, which are multiplied
+	 * on the ForkJoinPool of this instance and combined pairwise, so that large
+	 * products are multiplied by products of similar size.
+	 * </p>
+	 * <p>
+	 * The tasks multiply only the odd parts of the integers. The factors of 2
+	 * removed from them are applied as a single shift at the end. The number
+	 * of factors of 2 in N! is N minus the number of 1 bits in N.
+	 * </p>
 	 * 
-	 * @param n
-	 *            A number of type long to be converted into a list.
-	 * @return java.util.List&lt;Integer&gt;, an instance of
-	 *         java.util.LinkedList class.
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/util/LinkedList.html">java.util.LinkedList</a>
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/util/List.html">java.util.List</a>
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/lang/Integer.html">java.lang.Integer</a>
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/lang/Long.html">java.lang.Long</a>
+	 * @param num
+	 *            An integer value to compute the factorial, greater than 20
+	 * @param progress
+	 *            The progress of the computation
+	 * @return The factorial of the number passed as parameter.
 	 */
-	private List<Integer> toList(long n) {
+	private BigNatural parallelFactorial(int num, FactorialProgress progress) {
+		progress.expect(ProductTask.multiplications(21, num) + 1);
 
-		// Convert the integer passed as parameter to String
-		String strNum = Long.toString(n);
-		List<Integer> intList = new LinkedList<>();
+		BigNatural odd = getPool().invoke(new ProductTask(21, num, progress));
 
-		// Convert the String variable into an array of characters
-		char[] chArray = strNum.toCharArray();
+		// Factors of 2 in 21 x 22 x ... x num
+		int twos = (num - Integer.bitCount(num)) - (20 - Integer.bitCount(20));
 
-		// Iterate over the character array and convert each digit of type char
-		// into int and add to LinkedList
-		for (char c : chArray)
-			intList.add(Character.getNumericValue(c));
+		BigNatural product = odd.multiply(BigNatural.valueOf(simpleFactorial(20)));
+		progress.advance(1);
 
-		return intList;
+		return product.shiftLeft(twos);
 	}
 
 	/**
 	 * <p>
-	 * Accepts two parameters of type java.util.List, performs multiplication
-	 * and returns result of type java.util.List. Runtime type of both
-	 * parameters and the return value is java.util.LinkedList.
-	 * </p>
-	 * <p>
-	 * This method iterates over the list of integers passed as parameter and
-	 * performs a manual multiplication just like we do with a paper and a pen.
-	 * Multiplication is performed from right to left, digit by digit, taking
-	 * care of the carry generated. After each iteration of multiplications, the
-	 * digits generated are pushed into a queue, implemented as java.util.Deque.
-	 * Depending on the number of digits present in the numbers passed as
-	 * parameters, the number queues generated may vary.
+	 * Computes and returns the factorial of a number passed as parameter from
+	 * its prime factorization. The primes up to num are found by
+	 * {@link Primes#sieve(int)} and the exponent of each prime in num! is
+	 * computed by Legendre's formula. The odd prime powers are then multiplied
+	 * together by {@link Primes#powerProduct}, which relies on repeated
+	 * squaring, and the power of 2 is applied as a single shift.
 	 * </p>
 	 * <p>
-	 * Once all iterations are complete, the queues produced are equalized by
-	 * adding leading and trailing zeroes. Finally, the numbers in the form of
-	 * queues are added up from right to left to compute the result of
-	 * multiplication. The result is added into a list of type java.util.List
-	 * and returned.
+	 * Unlike the other methods, no multiplication involves a factor smaller
+	 * than a prime, and the number of multiplications grows with the number of
+	 * primes rather than the number of integers.
 	 * </p>
 	 * 
-	 * @param lnum
-	 *            Parameter, of type java.util.List, is the number on the left
-	 *            hand side of the multiplication expression. For e.g. In 2 x 3,
-	 *            2 is at the left hand side.
-	 * @param rnum
-	 *            Parameter, of type java.util.List, is the number on the right
-	 *            hand side of the multiplication expression. For e.g. In 2 x 3,
-	 *            3 is at the right hand side.
-	 * @return A list of type java.util.List, is the result of multiplication.
+	 * @param num
+	 *            An integer value to compute the factorial, greater than 20
+	 * @param progress
+	 *            The progress of the computation
+	 * @return The factorial of the number passed as parameter.
+	 */
+	private BigNatural primeFactorial(int num, FactorialProgress progress) {
+		int[] primes = Primes.sieve(num);
+		int[] exponents = new int[primes.length];
+
+		// Compute the exponent of each prime in num! by Legendre's formula
+		for (int k = 0; k < primes.length; k++)
+			exponents[k] = Primes.legendre(num, primes[k]);
+
+		return primePowerProduct(primes, exponents, progress);
+	}
+
+	/**
+	 * Returns the product of primes[k] raised to the power exponents[k] for
+	 * all k. The odd prime powers are multiplied by
+	 * {@link Primes#powerProduct} and the power of 2 is applied as a single
+	 * shift.
 	 * 
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/util/LinkedList.html">java.util.LinkedList</a>
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/util/Deque.html">java.util.Deque</a>
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/util/List.html">java.util.List</a>
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/lang/Integer.html">java.lang.Integer</a>
+	 * @param primes
+	 *            The primes in ascending order, as returned by
+	 *            {@link Primes#sieve(int)}
+	 * @param exponents
+	 *            The exponent of each prime, must not be negative
+	 * @param progress
+	 *            The progress of the computation
+	 * @return The product
 	 */
-	private List<Integer> multiply(List<Integer> lnum, List<Integer> rnum) {
+	private BigNatural primePowerProduct(int[] primes, int[] exponents, FactorialProgress progress) {
+		if (primes.length == 0)
+			return BigNatural.valueOf(1);
 
-		@SuppressWarnings("unchecked")
+		progress.expect(Primes.multiplications(exponents, 1, primes.length));
 
-		// Create an array of queues
-		Deque<Integer>[] decks = new LinkedList[rnum.size()];
+		// primes[0] is 2, which is applied as a shift
+		return Primes.powerProduct(primes, exponents, 1, primes.length, progress).shiftLeft(exponents[0]);
+	}
 
-		// Iterates over the list represents the number on the right hand side
-		// of the multiplication expression.
-		for (int i = rnum.size() - 1, k = 0; i >= 0; i--, k++) {
+	/**
+	 * <p>
+	 * Computes and returns the factorial of a number passed as parameter,
+	 * reusing the factorials stored in the cache. The computation starts from
+	 * the largest stored factorial M! with M &lt;= num. If num! itself is
+	 * stored, it is returned as is.
+	 * </p>
+	 * <p>
+	 * Let C be the largest multiple of the checkpoint interval not exceeding
+	 * num. If C is greater than M, C! is computed first, either by multiplying
+	 * M! with the product of M + 1 to C or, if nothing was found, by the method
+	 * selected for C, and stored as a checkpoint. num! is then computed from
+	 * the nearest of M! and C! and stored as well. Every factorial is thus
+	 * obtained with at most 2 large multiplications once the checkpoints below
+	 * it are stored.
+	 * </p>
+	 * <p>
+	 * The multiplications of the extensions from a known factorial are
+	 * declared to the progress before any of them is done, so that the
+	 * fraction of multiplications done never decreases.
+	 * </p>
+	 * 
+	 * @param num
+	 *            An integer value to compute the factorial, greater than 20
+	 * @param cache
+	 *            The cache to read and update
+	 * @param progress
+	 *            The progress of the computation
+	 * @return The factorial of the number passed as parameter.
+	 */
+	private BigNatural cachedFactorial(int num, FactorialCache cache, FactorialProgress progress) {
+		Map.Entry<Integer, BigNatural> floor = cache.lookup(num);
 
-			// Create an object of LinkedList to store the result of
-			// multiplication performed during the iterations
-			decks[k] = new LinkedList<>();
+		int from = 0;
+		BigNatural result = null;
 
-			// To store carry generated
-			int carry = 0;
+		if (floor != null) {
+			from = floor.getKey();
+			result = floor.getValue();
 
-			// Iterates over the list represents the number on the left hand
-			// side of the multiplication expression.
-			for (int j = lnum.size() - 1; j >= 0; j--) {
+			if (from == num)
+				return result;
+		}
 
-				// Multiply digit by digit from right to left, taking care of
-				// the carry generated
-				int m = lnum.get(j).intValue() * rnum.get(i).intValue() + carry;
+		int checkpoint = num - num % cache.getCheckpointInterval();
+		boolean extendToCheckpoint = checkpoint > from && checkpoint > 20 && checkpoint < num;
 
-				if (m >= 10) {
-					carry = m / 10;
-					m %= 10;
-				} else
-					carry = 0;
+		// An extension from an unknown factorial declares its own
+		// multiplications when it starts
+		long multiplications = 0;
+		if (extendToCheckpoint && result != null)
+			multiplications += extensionMultiplications(from, checkpoint);
+		if (extendToCheckpoint || result != null)
+			multiplications += extensionMultiplications(extendToCheckpoint ? checkpoint : from, num);
 
-				// Add the result of multiplication to the queue
-				decks[k].addLast(m);
-			}
+		progress.expect(multiplications);
 
-			// Add carry, if any remains, to the queue
-			if (carry > 0)
-				decks[k].addLast(carry);
+		if (extendToCheckpoint) {
+			result = extendFactorial(result, from, checkpoint, progress);
+			from = checkpoint;
 
+			cache.put(checkpoint, result);
 		}
 
-		// Add trailing zeroes to the queue to make all queues equal in size
-		for (int i = 0; i < decks.length; i++)
-			for (int j = 0; j < i; j++)
-				decks[i].addFirst(0);
-
-		// Add leading zeroes to the queue, to make all queues equal in size
-		for (int i = decks.length - 2; i >= 0; i--) {
-			int s1 = decks[i + 1].size();
-			int s2 = decks[i].size();
-			for (int j = 0; j < s1 - s2; j++)
-				decks[i].addLast(0);
-		}
+		result = extendFactorial(result, from, num, progress);
+		cache.put(num, result);
 
-		// Create new list to store the result of addition of numbers stored in
-		// queues
-		List<Integer> resultList = new LinkedList<>();
+		return result;
+	}
+
+	/**
+	 * Returns the factorial of to, given the factorial of from. If the
+	 * factorial of from is not known, the factorial of to is computed by the
+	 * method selected with {@link #STRATEGY_AUTO}, ignoring the cache, and
+	 * declares its multiplications to the progress. Else the multiplications
+	 * must have been declared by the caller, see
+	 * {@link #extensionMultiplications(int, int)}.
+	 * 
+	 * @param factorial
+	 *            The factorial of from, or null if it is not known
+	 * @param from
+	 *            The number whose factorial is known
+	 * @param to
+	 *            The number whose factorial is requested, greater than from
+	 * @param progress
+	 *            The progress of the computation
+	 * @return The factorial of to
+	 */
+	private BigNatural extendFactorial(BigNatural factorial, int from, int to, FactorialProgress progress) {
+		if (factorial == null)
+			return computeFactorial(to, selectStrategy(to), progress);
 
-		// To store carry generated
-		int carry = 0;
+		BigNatural result = factorial.multiply(rangeProduct(from + 1, to, progress));
+		progress.advance(1);
 
-		// Iterate over the array of queues until the first queue becomes empty.
-		// Elements are removed automatically from a queue while it is polled.
-		while (!decks[0].isEmpty()) {
-			int sum = 0;
+		return result;
+	}
+
+	/**
+	 * Returns the number of multiplications reported by
+	 * {@link #extendFactorial(BigNatural, int, int, FactorialProgress)} when
+	 * the factorial of from is known
+	 * 
+	 * @param from
+	 *            The number whose factorial is known
+	 * @param to
+	 *            The number whose factorial is requested, greater than from
+	 * @return Number of multiplications
+	 */
+	private static long extensionMultiplications(int from, int to) {
+		return ProductTask.multiplications(from + 1, to) + 1;
+	}
 
-			// This loop iterates across queues to add up corresponding digits
-			for (Deque<Integer> d : decks)
-				sum += d.pollFirst().intValue();
+	/**
+	 * Returns the product of all integers from lo to hi, both inclusive, by
+	 * means of a balanced product tree. The tree runs on the ForkJoinPool of
+	 * this instance if the range is at least as large as the parallel
+	 * threshold, else on the current thread. As in
+	 * {@link #parallelFactorial(int, FactorialProgress)}, only the odd parts
+	 * are multiplied and the factors of 2 are applied as a single shift.
+	 * 
+	 * @param lo
+	 *            The first factor, must be greater than 0
+	 * @param hi
+	 *            The last factor
+	 * @param progress
+	 *            The progress of the computation
+	 * @return The product of the range
+	 */
+	private BigNatural rangeProduct(int lo, int hi, FactorialProgress progress) {
+		BigNatural odd;
 
-			sum += carry;
+		if ((long) hi - lo + 1 >= parallelThreshold && parallelism > 1)
+			odd = getPool().invoke(new ProductTask(lo, hi, progress));
+		else
+			odd = ProductTask.sequentialProduct(lo, hi, progress);
 
-			if (sum >= 10) {
-				carry = sum / 10;
-				sum %= 10;
-			} else
-				carry = 0;
+		// Factors of 2 in lo x (lo + 1) x ... x hi
+		int twos = (hi - Integer.bitCount(hi)) - (lo - 1 - Integer.bitCount(lo - 1));
 
-			// Add the result of addition to the results queue
-			resultList.add(0, sum);
-		}
+		return odd.shiftLeft(twos);
+	}
 
-		// Add carry, if any remains, to the queue
-		if (carry > 0)
-			resultList.add(0, carry);
+	/**
+	 * Returns the ForkJoinPool of this instance, creating it with the current
+	 * parallelism when called for the first time.
+	 * 
+	 * @return The ForkJoinPool
+	 */
+	private synchronized ForkJoinPool getPool() {
+		if (pool == null)
+			pool = new ForkJoinPool(parallelism);
 
-		return resultList;
+		return pool;
+	}
 
+	/**
+	 * Creates the default executor of {@link #getExecutor()}. The virtual
+	 * thread executor is looked up by reflection, so that this class also runs
+	 * on versions of Java without virtual threads.
+	 * 
+	 * @return The executor
+	 */
+	private static Executor defaultExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (Executor) method.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "factorial-job");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
 	}
 
 	/**
@@ -326,8 +1038,9 @@ public class Factorial {
 	 * class to accept user input from standard input. As the execution starts,
 	 * the method starts a loop and prompts to enter the number to compute
 	 * factorial. It creates an instance of the Factorial class and calls
-	 * {@link #getFactorial(int)} method to compute the factorial of the number
-	 * entered as input. The result is printed and the user prompt repeats. This
+	 * {@link #writeFactorial(int, OutputStream)} method to compute the
+	 * factorial of the number entered as input and stream it to standard
+	 * output. The result is printed and the user prompt repeats. This
 	 * continues until the user enters a negative number as input to exit the
 	 * loop and terminate the program.
 	 * 
@@ -361,8 +1074,10 @@ public class Factorial {
 				// If number input is less than 0, exit, else compute factorial.
 				if (input < 0)
 					break;
-				else
-					System.out.println(fact.getFactorial(input));
+				else {
+					fact.writeFactorial(input, (OutputStream) System.out);
+					System.out.println();
+				}
 			}
 		} catch (InputMismatchException e) {
 			// This exception is thrown in case invalid input is entered.
@@ -0,0 +1,254 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * <p>
+ * This class keeps factorials that have already been computed, in binary form,
+ * so that a {@link Factorial} object can reuse them. An instance is attached
+ * to a Factorial object by calling {@link Factorial#setCache(FactorialCache)}.
+ * </p>
+ * <p>
+ * Two kinds of values are stored :-
+ * <ul>
+ * <li>Checkpoints, the factorials of multiples of the checkpoint interval. When
+ * N! is requested, the factorial of the largest multiple of the interval not
+ * exceeding N is stored as well.</li>
+ * <li>The factorials that were actually requested.</li>
+ * </ul>
+ * A request for N! starts from the largest stored value not exceeding N and
+ * multiplies only the remaining numbers.
+ * </p>
+ * <p>
+ * The memory used by the stored values is limited to a budget in bytes. When a
+ * new value does not fit, the least recently used values are evicted until it
+ * does. A value larger than the whole budget is not stored at all. The number
+ * of hits, misses and evictions is counted.
+ * </p>
+ * <p>
+ * All the methods of this class are synchronized, so a cache can be shared by
+ * several Factorial objects and threads.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see <a href=
+ *      "https://docs.oracle.com/javase/7/docs/api/java/util/TreeMap.html">java.util.TreeMap</a>
+ * @see <a href=
+ *      "https://docs.oracle.com/javase/7/docs/api/java/util/LinkedHashMap.html">java.util.LinkedHashMap</a>
+ */
+public class FactorialCache {
+
+	/**
+	 * Default value of {@link #checkpointInterval}
+	 */
+	public static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+
+	/**
+	 * Maximum number of bytes used by the stored values
+	 */
+	private final long maxBytes;
+
+	/**
+	 * Distance between 2 checkpoints
+	 */
+	private final int checkpointInterval;
+
+	/**
+	 * Stored values, sorted by number to find the nearest lower value
+	 */
+	private final TreeMap<Integer, BigNatural> values;
+
+	/**
+	 * Stored values, in order of access from the least recently used
+	 */
+	private final LinkedHashMap<Integer, BigNatural> recent;
+
+	/**
+	 * Number of bytes used by the stored values
+	 */
+	private long usedBytes;
+
+	/**
+	 * Number of lookups which found the requested factorial
+	 */
+	private long hits;
+
+	/**
+	 * Number of lookups which did not find the requested factorial
+	 */
+	private long misses;
+
+	/**
+	 * Number of values evicted to stay within the memory budget
+	 */
+	private long evictions;
+
+	/**
+	 * Constructor, creates a cache with the default checkpoint interval
+	 *
+	 * @param maxBytes
+	 *            Maximum number of bytes used by the stored values
+	 */
+	public FactorialCache(long maxBytes) {
+		this(maxBytes, DEFAULT_CHECKPOINT_INTERVAL);
+	}
+
+	/**
+	 * Constructor, creates a cache with the memory budget and checkpoint
+	 * interval passed as parameters
+	 *
+	 * @param maxBytes
+	 *            Maximum number of bytes used by the stored values
+	 * @param checkpointInterval
+	 *            Distance between 2 checkpoints, must be greater than 0
+	 * @throws IllegalArgumentException
+	 *             If maxBytes is negative or checkpointInterval is less than 1
+	 */
+	public FactorialCache(long maxBytes, int checkpointInterval) {
+		if (maxBytes < 0)
+			throw new IllegalArgumentException("Memory budget must not be negative");
+		if (checkpointInterval < 1)
+			throw new IllegalArgumentException("Checkpoint interval must be greater than 0");
+
+		this.maxBytes = maxBytes;
+		this.checkpointInterval = checkpointInterval;
+		values = new TreeMap<>();
+		recent = new LinkedHashMap<>(16, 0.75f, true);
+		usedBytes = 0;
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	/**
+	 * Returns the maximum number of bytes used by the stored values
+	 *
+	 * @return The memory budget
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Returns the distance between 2 checkpoints
+	 *
+	 * @return The checkpoint interval
+	 */
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Returns the number of bytes currently used by the stored values
+	 *
+	 * @return The used memory
+	 */
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	/**
+	 * Returns the number of values currently stored
+	 *
+	 * @return The number of values
+	 */
+	public synchronized int size() {
+		return values.size();
+	}
+
+	/**
+	 * Returns the number of lookups which found the requested factorial
+	 *
+	 * @return The number of hits
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of lookups which did not find the requested factorial.
+	 * Such a lookup may still have found a lower value to start from.
+	 *
+	 * @return The number of misses
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of values evicted to stay within the memory budget
+	 *
+	 * @return The number of evictions
+	 */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Removes all the stored values. The counters are not reset.
+	 */
+	public synchronized void clear() {
+		values.clear();
+		recent.clear();
+		usedBytes = 0;
+	}
+
+	/**
+	 * Returns the stored value of the largest number not exceeding n, or null
+	 * if there is none. Counts a hit if the value of n itself is found, else a
+	 * miss. The value returned, if any, becomes the most recently used.
+	 *
+	 * @param n
+	 *            The number whose factorial is requested
+	 * @return The number and its factorial, or null
+	 */
+	synchronized Map.Entry<Integer, BigNatural> lookup(int n) {
+		Map.Entry<Integer, BigNatural> entry = values.floorEntry(n);
+
+		if (entry != null && entry.getKey() == n)
+			hits++;
+		else
+			misses++;
+
+		// Mark the value as used
+		if (entry != null)
+			recent.get(entry.getKey());
+
+		return entry;
+	}
+
+	/**
+	 * Stores the factorial of n, evicting the least recently used values as
+	 * long as the memory budget is exceeded. A value larger than the memory
+	 * budget is not stored.
+	 *
+	 * @param n
+	 *            The number
+	 * @param factorial
+	 *            The factorial of n, which must not be modified afterwards
+	 */
+	synchronized void put(int n, BigNatural factorial) {
+		long size = factorial.memorySize();
+		if (size > maxBytes)
+			return;
+
+		BigNatural previous = values.put(n, factorial);
+		recent.put(n, factorial);
+
+		if (previous != null)
+			usedBytes -= previous.memorySize();
+		usedBytes += size;
+
+		// Evict from the least recently used value
+		Iterator<Map.Entry<Integer, BigNatural>> it = recent.entrySet().iterator();
+		while (usedBytes > maxBytes) {
+			Map.Entry<Integer, BigNatural> eldest = it.next();
+			it.remove();
+			values.remove(eldest.getKey());
+			usedBytes -= eldest.getValue().memorySize();
+			evictions++;
+		}
+	}
+}
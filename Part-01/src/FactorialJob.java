@@ -0,0 +1,225 @@
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * <p>
+ * This class represents the computation of a factorial submitted by
+ * {@link Factorial#submitFactorial(int)}, which runs in the background and
+ * completes a CompletableFuture with the decimal digits of the factorial.
+ * </p>
+ * <p>
+ * The factorial is computed by the {@link Factorial} instance which submitted
+ * the job, with the strategy selected by {@link Factorial#STRATEGY_AUTO}, so
+ * that the job uses the cache, the parallel threshold and the ForkJoinPool of
+ * that instance. The result is then converted into decimal digits, which are
+ * streamed into a StringBuilder.
+ * </p>
+ * <p>
+ * The computation reports its multiplications to a {@link FactorialProgress}
+ * of the job, from the sequential loop, the leaves of the product tree, its
+ * multiplications of partial products and the products of prime powers.
+ * Every report checks whether the future has been completed, as does every
+ * flush of digits. So cancelling the future, or letting its timeout expire,
+ * stops the job once the leaf or the large multiplication in progress is
+ * done, including its tasks on the ForkJoinPool, and the thread running it is
+ * released. Nothing is stored in the cache by a job which is stopped.
+ * </p>
+ * <p>
+ * The progress of the computation phase is reported as the fraction of the
+ * multiplications done. The progress of the conversion phase is reported as
+ * the number of digits produced, to be compared with the estimated number of
+ * digits.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see <a href=
+ *      "https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/CompletableFuture.html">java.util.concurrent.CompletableFuture</a>
+ */
+public class FactorialJob {
+
+	/**
+	 * The instance computing the factorial
+	 */
+	private final Factorial factorial;
+
+	/**
+	 * The number whose factorial is computed
+	 */
+	private final int num;
+
+	/**
+	 * Future completed with the digits of the factorial
+	 */
+	private final CompletableFuture<String> future;
+
+	/**
+	 * Estimated number of digits of the factorial
+	 */
+	private final long estimatedDigits;
+
+	/**
+	 * The multiplications of the computation phase
+	 */
+	private final FactorialProgress progress;
+
+	/**
+	 * true, once the factorial has been computed
+	 */
+	private volatile boolean computed;
+
+	/**
+	 * Number of digits produced so far
+	 */
+	private volatile long digits;
+
+	/**
+	 * Constructor, creates a job which is not started yet
+	 *
+	 * @param factorial
+	 *            The instance computing the factorial
+	 * @param num
+	 *            The number whose factorial is computed, must not be negative
+	 */
+	FactorialJob(Factorial factorial, int num) {
+		this.factorial = factorial;
+		this.num = num;
+		future = new CompletableFuture<>();
+		estimatedDigits = FactorialQueries.estimateDigitCount(num);
+		progress = new FactorialProgress(future::isDone);
+		computed = false;
+		digits = 0;
+	}
+
+	/**
+	 * Returns the number whose factorial is computed
+	 *
+	 * @return The number
+	 */
+	public int getNumber() {
+		return num;
+	}
+
+	/**
+	 * Returns the future completed with the digits of the factorial. The
+	 * future completes exceptionally with a CancellationException if the job
+	 * is cancelled and with a TimeoutException if the deadline passes.
+	 *
+	 * @return The future
+	 */
+	public CompletableFuture<String> getFuture() {
+		return future;
+	}
+
+	/**
+	 * Cancels the job. The thread running it stops once the leaf or the large
+	 * multiplication in progress is done, or at the next flush of digits.
+	 *
+	 * @return true if the job was cancelled, false if it had already completed
+	 */
+	public boolean cancel() {
+		return future.cancel(true);
+	}
+
+	/**
+	 * Returns whether the job has completed, normally, exceptionally or by
+	 * cancellation
+	 *
+	 * @return true if the job has completed
+	 */
+	public boolean isDone() {
+		return future.isDone();
+	}
+
+	/**
+	 * Returns the fraction of the multiplications of the computation phase
+	 * done so far, from 0 to 1. A factorial small enough to need no
+	 * multiplication reports 1 once it is computed.
+	 *
+	 * @return The progress of the computation phase
+	 */
+	public double getProgress() {
+		return computed ? 1 : progress.getFraction();
+	}
+
+	/**
+	 * Returns the estimated number of digits of the factorial, see
+	 * {@link FactorialQueries#digitCount(int)}
+	 *
+	 * @return Estimated number of digits
+	 */
+	public long getEstimatedDigits() {
+		return estimatedDigits;
+	}
+
+	/**
+	 * Returns the number of digits produced so far by the conversion phase
+	 *
+	 * @return Number of digits produced
+	 */
+	public long getDigitsWritten() {
+		return digits;
+	}
+
+	/**
+	 * Runs the job and completes the future with the result, unless it has
+	 * already been completed by cancellation or timeout
+	 */
+	void run() {
+		try {
+			future.complete(compute());
+		} catch (CancellationException e) {
+			// The future is already completed
+		} catch (Throwable e) {
+			future.completeExceptionally(e);
+		}
+	}
+
+	/**
+	 * Computes the factorial and returns its digits
+	 *
+	 * @return The digits of the factorial
+	 * @throws CancellationException
+	 *             If the future is completed before the end of the computation
+	 */
+	private String compute() {
+		progress.checkCancelled();
+
+		BigNatural result = factorial.computeFactorial(num, progress);
+		computed = true;
+
+		progress.checkCancelled();
+
+		StringBuilder builder = new StringBuilder((int) Math.min(estimatedDigits, Integer.MAX_VALUE - 8));
+
+		try {
+			DecimalConverter.writeDecimal(result, new DigitWriter(new Appendable() {
+				@Override
+				public Appendable append(CharSequence csq) {
+					return append(csq, 0, csq.length());
+				}
+
+				@Override
+				public Appendable append(CharSequence csq, int start, int end) {
+					progress.checkCancelled();
+
+					builder.append(csq, start, end);
+					digits += end - start;
+
+					return this;
+				}
+
+				@Override
+				public Appendable append(char c) {
+					return append(String.valueOf(c), 0, 1);
+				}
+			}));
+		} catch (IOException e) {
+			// A StringBuilder never throws
+			throw new IllegalStateException(e);
+		}
+
+		return builder.toString();
+	}
+}
@@ -0,0 +1,115 @@
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * <p>
+ * This class follows the multiplications of a factorial computation, so that
+ * a {@link FactorialJob} can report its progress and stop it when the job is
+ * cancelled. It is passed down by {@link Factorial} to every method that
+ * multiplies: the sequential loop, the leaves of {@link ProductTask} and the
+ * products of prime powers of {@link Primes}.
+ * </p>
+ * <p>
+ * A computation declares the number of multiplications it is about to do by
+ * {@link #expect(long)} before doing any of them, and reports them by
+ * {@link #advance(long)} as they are done. A multiplication by a single
+ * integer counts as one, as does a multiplication of 2 large numbers. Every
+ * report also checks whether the computation has been cancelled, and throws a
+ * CancellationException if so. The multiplication in progress is never
+ * interrupted, so a cancelled computation stops at the end of the current
+ * leaf or large multiplication.
+ * </p>
+ * <p>
+ * The counters are updated atomically, since the leaves of a product tree are
+ * multiplied on several threads of a ForkJoinPool.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see FactorialJob
+ */
+final class FactorialProgress {
+
+	/**
+	 * Progress of the computations which are neither followed nor cancelled
+	 */
+	static final FactorialProgress NONE = new FactorialProgress(() -> false);
+
+	/**
+	 * Returns true once the computation is to be stopped
+	 */
+	private final BooleanSupplier cancelled;
+
+	/**
+	 * Number of multiplications declared so far
+	 */
+	private final AtomicLong total;
+
+	/**
+	 * Number of multiplications done so far
+	 */
+	private final AtomicLong done;
+
+	/**
+	 * Constructor, to be called while creating the object of this class
+	 *
+	 * @param cancelled
+	 *            Returns true once the computation is to be stopped
+	 */
+	FactorialProgress(BooleanSupplier cancelled) {
+		this.cancelled = cancelled;
+		total = new AtomicLong();
+		done = new AtomicLong();
+	}
+
+	/**
+	 * Declares multiplications which are about to be done
+	 *
+	 * @param multiplications
+	 *            Number of multiplications
+	 */
+	void expect(long multiplications) {
+		total.addAndGet(multiplications);
+	}
+
+	/**
+	 * Reports multiplications which have been done, then checks whether the
+	 * computation has been cancelled
+	 *
+	 * @param multiplications
+	 *            Number of multiplications
+	 * @throws CancellationException
+	 *             If the computation has been cancelled
+	 */
+	void advance(long multiplications) {
+		done.addAndGet(multiplications);
+
+		checkCancelled();
+	}
+
+	/**
+	 * Throws a CancellationException if the computation has been cancelled
+	 *
+	 * @throws CancellationException
+	 *             If the computation has been cancelled
+	 */
+	void checkCancelled() {
+		if (cancelled.getAsBoolean())
+			throw new CancellationException();
+	}
+
+	/**
+	 * Returns the fraction of the declared multiplications done so far, from
+	 * 0 to 1, or 0 if none has been declared
+	 *
+	 * @return The fraction of multiplications done
+	 */
+	double getFraction() {
+		long expected = total.get();
+		if (expected == 0)
+			return 0;
+
+		return Math.min((double) done.get() / expected, 1);
+	}
+}
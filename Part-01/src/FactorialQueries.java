@@ -0,0 +1,614 @@
+import java.io.IOException;
+
+/**
+ * <p>
+ * This class answers questions about the factorial of a number without
+ * computing all of its digits, whenever possible :-
+ * </p>
+ * <ul>
+ * <li>The number of decimal digits and the leading digits are derived from the
+ * base 10 logarithm of N!, which is computed by Stirling's series. The large
+ * terms of the series are evaluated in double-double arithmetic, a pair of
+ * doubles holding about 32 significant digits, so that the fractional part of
+ * the logarithm is accurate to about 10<sup>-14</sup> even for N close to
+ * Integer.MAX_VALUE. If the answer is the same at both ends of the error
+ * interval, it is returned directly. Else, for N up to
+ * {@link #EXACT_LIMIT}, the factorial is computed to find the answer, and
+ * above that an ArithmeticException is thrown. This happens only when N! is
+ * extremely close to a power of 10, or to a change in the requested leading
+ * digits.</li>
+ * <li>The number of trailing zeroes is the exponent of 5 in N!, which is given
+ * by Legendre's formula.</li>
+ * <li>N! mod M is computed separately modulo each prime power of M and the
+ * results are combined by the Chinese remainder theorem. A prime power which
+ * divides N! contributes zero, which is detected by Legendre's formula.
+ * Modulo a prime p, Wilson's theorem (p - 1)! = -1 mod p allows to multiply
+ * either the integers up to N or the integers from N + 1 to p - 1, whichever
+ * is shorter.</li>
+ * <li>The sum of the digits is the only query which needs the digits. They are
+ * streamed from the binary form of N!, without creating a String.</li>
+ * </ul>
+ * <p>
+ * The digit count, the leading digits and the trailing zeroes are answered in
+ * microseconds for any N. The other 2 queries are not: N! mod M costs a
+ * modular multiplication, about 4 ns, for each of the min(N, p - 1 - N)
+ * integers multiplied for the largest prime factor p of M, i.e. up to a few
+ * seconds when p is close to Integer.MAX_VALUE and N is not close to 0 or p.
+ * The digit sum costs the computation and the conversion of N!, e.g. about 2
+ * seconds for N = 10<sup>5</sup> and a minute for N = 10<sup>6</sup>.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see Factorial
+ * @see <a href="https://en.wikipedia.org/wiki/Stirling%27s_approximation">
+ *      Stirling's approximation</a>
+ * @see <a href="https://en.wikipedia.org/wiki/Wilson%27s_theorem">Wilson's
+ *      theorem</a>
+ */
+public class FactorialQueries {
+
+	/**
+	 * Largest number for which the factorial is computed when the logarithm
+	 * is not precise enough to answer a query
+	 */
+	public static final int EXACT_LIMIT = 20000;
+
+	/**
+	 * Maximum number of leading digits which can be requested
+	 */
+	public static final int MAX_LEADING_DIGITS = 15;
+
+	/**
+	 * Upper bound of the error of the fractional part returned by
+	 * {@link #log10Factorial(int)}
+	 */
+	private static final double LOG_ERROR = 1e-14;
+
+	/**
+	 * Natural logarithm of 2, as a double-double
+	 */
+	private static final double[] LN_2 = { 0x1.62e42fefa39efp-1, 0x1.abc9e3b39803fp-56 };
+
+	/**
+	 * Natural logarithm of 10, as a double-double
+	 */
+	private static final double[] LN_10 = { 0x1.26bb1bbb55516p+1, -0x1.f48ad494ea3e9p-53 };
+
+	/**
+	 * Half of the natural logarithm of 2 x pi
+	 */
+	private static final double HALF_LN_2PI = 0.5 * Math.log(2 * Math.PI);
+
+	/**
+	 * Instance used to compute factorials when they are needed
+	 */
+	private final Factorial factorial;
+
+	/**
+	 * Default Constructor, which creates its own Factorial instance to compute
+	 * factorials when they are needed
+	 */
+	public FactorialQueries() {
+		this(new Factorial());
+	}
+
+	/**
+	 * Constructor, which uses the Factorial instance passed as parameter to
+	 * compute factorials when they are needed, so that its settings and cache
+	 * are shared
+	 *
+	 * @param factorial
+	 *            The Factorial instance
+	 */
+	public FactorialQueries(Factorial factorial) {
+		this.factorial = factorial;
+	}
+
+	/**
+	 * Returns the number of decimal digits of the factorial of n
+	 *
+	 * @param n
+	 *            An integer value, must not be negative
+	 * @return Number of digits of n!
+	 * @throws IllegalArgumentException
+	 *             If n is negative
+	 * @throws ArithmeticException
+	 *             If n is greater than {@link #EXACT_LIMIT} and n! is too close
+	 *             to a power of 10 for the logarithm to decide
+	 */
+	public long digitCount(int n) {
+		checkNumber(n);
+
+		if (n <= 20)
+			return Long.toString(smallFactorial(n)).length();
+
+		double[] log = log10Factorial(n);
+
+		if (log[1] - LOG_ERROR >= 0 && log[1] + LOG_ERROR < 1)
+			return (long) log[0] + 1;
+
+		return exactDigits(n, "digit count").length();
+	}
+
+	/**
+	 * Returns the number of decimal digits of the factorial of n as given by
+	 * its logarithm, without checking the error bound. The result is exact
+	 * unless n! is extremely close to a power of 10, in which case it may be
+	 * 1 too high or too low.
+	 *
+	 * @param n
+	 *            An integer value, must not be negative
+	 * @return Estimated number of digits of n!
+	 */
+	static long estimateDigitCount(int n) {
+		if (n <= 20)
+			return Long.toString(smallFactorial(n)).length();
+
+		return (long) log10Factorial(n)[0] + 1;
+	}
+
+	/**
+	 * Returns the leading k digits of the factorial of n, as a number. If n!
+	 * has fewer than k digits, n! itself is returned.
+	 *
+	 * @param n
+	 *            An integer value, must not be negative
+	 * @param k
+	 *            Number of digits, from 1 to {@link #MAX_LEADING_DIGITS}
+	 * @return The first k digits of n!
+	 * @throws IllegalArgumentException
+	 *             If n is negative or k is out of range
+	 * @throws ArithmeticException
+	 *             If n is greater than {@link #EXACT_LIMIT} and the logarithm
+	 *             is not precise enough to decide the k digits
+	 */
+	public long leadingDigits(int n, int k) {
+		checkNumber(n);
+		if (k < 1 || k > MAX_LEADING_DIGITS)
+			throw new IllegalArgumentException("Number of digits must be from 1 to " + MAX_LEADING_DIGITS);
+
+		if (n <= 20) {
+			String digits = Long.toString(smallFactorial(n));
+			return Long.parseLong(digits.substring(0, Math.min(k, digits.length())));
+		}
+
+		double[] log = log10Factorial(n);
+
+		// Both ends must have the same number of digits
+		if (log[1] - LOG_ERROR >= 0 && log[1] + LOG_ERROR < 1) {
+			// Math.pow is accurate to 1 ulp, widen the interval accordingly
+			double lower = Math.pow(10, log[1] - LOG_ERROR + k - 1) * (1 - 0x1p-50);
+			double upper = Math.pow(10, log[1] + LOG_ERROR + k - 1) * (1 + 0x1p-50);
+
+			if (Math.floor(lower) == Math.floor(upper))
+				return (long) lower;
+		}
+
+		return Long.parseLong(exactDigits(n, "leading digits").substring(0, k));
+	}
+
+	/**
+	 * Returns the number of trailing zeroes of the factorial of n. Each
+	 * trailing zero is a factor 10 = 2 x 5, and there are fewer factors of 5
+	 * than factors of 2, so the count is the exponent of 5 in n!.
+	 *
+	 * @param n
+	 *            An integer value, must not be negative
+	 * @return Number of trailing zeroes of n!
+	 * @throws IllegalArgumentException
+	 *             If n is negative
+	 */
+	public int trailingZeros(int n) {
+		checkNumber(n);
+
+		return Primes.legendre(n, 5);
+	}
+
+	/**
+	 * Returns the sum of the decimal digits of the factorial of n. Unlike the
+	 * other queries, this requires the factorial and all its digits, so the
+	 * cost is that of {@link Factorial#writeFactorial(int, Appendable)},
+	 * which grows faster than n and reaches a minute for n = 10<sup>6</sup>.
+	 * The digits are streamed and added up as they are produced.
+	 *
+	 * @param n
+	 *            An integer value, must not be negative
+	 * @return Sum of the digits of n!
+	 * @throws IllegalArgumentException
+	 *             If n is negative
+	 */
+	public long digitSum(int n) {
+		checkNumber(n);
+
+		DigitSum sum = new DigitSum();
+
+		try {
+			factorial.writeFactorial(n, sum);
+		} catch (IOException e) {
+			// DigitSum never throws
+			throw new IllegalStateException(e);
+		}
+
+		return sum.total;
+	}
+
+	/**
+	 * <p>
+	 * Returns the factorial of n modulo m. If n &gt;= m, m is one of the
+	 * factors of n! and the result is zero. Else m is split into prime powers
+	 * p<sup>e</sup> by trial division :-
+	 * </p>
+	 * <ul>
+	 * <li>If the exponent of p in n! is at least e, n! mod p<sup>e</sup> is
+	 * zero.</li>
+	 * <li>Else if e is 1, n &lt; p and n! mod p is computed by
+	 * {@link #factorialModPrime(int, int)}.</li>
+	 * <li>Else n is less than e x p and the integers up to n are multiplied
+	 * modulo p<sup>e</sup>.</li>
+	 * </ul>
+	 * <p>
+	 * The partial results are combined by the Chinese remainder theorem. The
+	 * cost is dominated by the largest prime factor p of m not dividing n!,
+	 * and is proportional to min(n, p - 1 - n): about 4 ns per integer, so up
+	 * to about 4 seconds for p close to Integer.MAX_VALUE and n close to p /
+	 * 2. Faster algorithms, in O(sqrt(p) log(p)) multiplications, need
+	 * polynomial arithmetic modulo p and are not implemented.
+	 * </p>
+	 *
+	 * @param n
+	 *            An integer value, must not be negative
+	 * @param m
+	 *            The modulus, must be greater than 0
+	 * @return n! mod m
+	 * @throws IllegalArgumentException
+	 *             If n is negative or m is less than 1
+	 */
+	public int factorialMod(int n, int m) {
+		checkNumber(n);
+		if (m < 1)
+			throw new IllegalArgumentException("Modulus must be greater than 0");
+
+		if (n >= m)
+			return 0;
+
+		long result = 0;
+		long modulus = 1;
+		int rest = m;
+
+		for (int p = 2; rest > 1; p = (p == 2) ? 3 : p + 2) {
+			// The remaining cofactor is a prime
+			if ((long) p * p > rest)
+				p = rest;
+
+			if (rest % p != 0)
+				continue;
+
+			int e = 0;
+			int q = 1;
+			while (rest % p == 0) {
+				rest /= p;
+				q *= p;
+				e++;
+			}
+
+			long r;
+			if (Primes.legendre(n, p) >= e)
+				r = 0;
+			else if (e == 1)
+				r = factorialModPrime(n, p);
+			else
+				r = productMod(1, n, q);
+
+			// Combine x = result mod modulus and x = r mod q
+			long t = (r - result % q + q) % q * inverse(modulus % q, q) % q;
+			result += modulus * t;
+			modulus *= q;
+		}
+
+		return (int) result;
+	}
+
+	/**
+	 * Returns n! mod p for a prime p greater than n. If n is closer to p than
+	 * to zero, Wilson's theorem is applied: n! x (n + 1) x ... x (p - 1) = -1
+	 * mod p, so n! is minus the inverse of the product of n + 1 to p - 1.
+	 *
+	 * @param n
+	 *            An integer value, less than p
+	 * @param p
+	 *            A prime number
+	 * @return n! mod p
+	 */
+	private static long factorialModPrime(int n, int p) {
+		if (n < p - 1 - n)
+			return productMod(1, n, p);
+
+		return (p - inverse(productMod(n + 1, p - 1, p), p)) % p;
+	}
+
+	/**
+	 * Returns the product of the integers from lo to hi, both inclusive,
+	 * modulo m. Each product is reduced by a division, whose latency would
+	 * limit a single running product. So 4 running products are kept for the
+	 * integers of each residue modulo 4, which can be reduced in parallel by
+	 * the processor, and are multiplied together at the end.
+	 *
+	 * @param lo
+	 *            The first factor
+	 * @param hi
+	 *            The last factor
+	 * @param m
+	 *            The modulus, less than 2<sup>31</sup>
+	 * @return The product modulo m
+	 */
+	private static long productMod(int lo, int hi, int m) {
+		long p0 = 1 % m, p1 = p0, p2 = p0, p3 = p0;
+		long i = lo;
+
+		// Both operands are less than 2^31, so the products fit in a long
+		for (; i + 3 <= hi; i += 4) {
+			p0 = p0 * i % m;
+			p1 = p1 * (i + 1) % m;
+			p2 = p2 * (i + 2) % m;
+			p3 = p3 * (i + 3) % m;
+		}
+
+		for (; i <= hi; i++)
+			p0 = p0 * i % m;
+
+		return p0 * p1 % m * (p2 * p3 % m) % m;
+	}
+
+	/**
+	 * Returns the inverse of a modulo m, by means of the extended Euclidean
+	 * algorithm. a and m must be coprime.
+	 *
+	 * @param a
+	 *            The number to invert
+	 * @param m
+	 *            The modulus
+	 * @return The inverse, from 0 to m - 1
+	 */
+	private static long inverse(long a, long m) {
+		long r0 = m, r1 = a % m;
+		long s0 = 0, s1 = 1;
+
+		while (r1 != 0) {
+			long q = r0 / r1;
+
+			long r = r0 - q * r1;
+			r0 = r1;
+			r1 = r;
+
+			long s = s0 - q * s1;
+			s0 = s1;
+			s1 = s;
+		}
+
+		return (s0 % m + m) % m;
+	}
+
+	/**
+	 * <p>
+	 * Returns the base 10 logarithm of n!, split into its integer part and its
+	 * fractional part, by Stirling's series ln(n!) = n ln(n) - n + ln(2 pi n) /
+	 * 2 + 1 / 12n - 1 / 360n<sup>3</sup> + 1 / 1260n<sup>5</sup> - 1 /
+	 * 1680n<sup>7</sup> + 1 / 1188n<sup>9</sup>. For n &gt; 20 the first
+	 * omitted term is below 10<sup>-17</sup>.
+	 * </p>
+	 * <p>
+	 * n ln(n) - n is about 2 x 10<sup>10</sup> times larger than the
+	 * fractional part, so it is computed in double-double arithmetic, as is the
+	 * division by ln(10). The small terms are computed in double arithmetic.
+	 * </p>
+	 *
+	 * @param n
+	 *            An integer value greater than 20
+	 * @return An array holding the integer part and the fractional part of the
+	 *         logarithm, in this order
+	 */
+	private static double[] log10Factorial(int n) {
+		double[] ln = ln(n);
+
+		double x = n;
+		double inverse = 1 / x;
+		double inverse2 = inverse * inverse;
+		double series = inverse
+				* (1.0 / 12 - inverse2 * (1.0 / 360 - inverse2 * (1.0 / 1260 - inverse2 * (1.0 / 1680 - inverse2 / 1188))));
+
+		double[] sum = multiply(ln, x, 0);
+		sum = add(sum, -x, 0);
+		sum = add(sum, 0.5 * ln[0] + HALF_LN_2PI + series, 0);
+
+		double[] log = divide(sum, LN_10[0], LN_10[1]);
+
+		// The integer part is exact, the fractional part gathers both halves
+		double integer = Math.floor(log[0]);
+		double fraction = (log[0] - integer) + log[1];
+		if (fraction < 0) {
+			integer--;
+			fraction++;
+		} else if (fraction >= 1) {
+			integer++;
+			fraction--;
+		}
+
+		return new double[] { integer, fraction };
+	}
+
+	/**
+	 * Returns the natural logarithm of n as a double-double. With n = 2<sup>e</sup>
+	 * x m, where m is between 1 / sqrt(2) and sqrt(2), ln(n) = e ln(2) + ln(m)
+	 * and ln(m) = 2 (s + s<sup>3</sup> / 3 + s<sup>5</sup> / 5 + ...) where s =
+	 * (m - 1) / (m + 1) is less than 0.18.
+	 *
+	 * @param n
+	 *            An integer value greater than 0
+	 * @return The logarithm of n
+	 */
+	private static double[] ln(int n) {
+		int e = 31 - Integer.numberOfLeadingZeros(n);
+		double m = Math.scalb((double) n, -e);
+		if (m > Math.sqrt(2)) {
+			m /= 2;
+			e++;
+		}
+
+		// m - 1 and m + 1 are exact, m has at most 32 significant bits
+		double[] s = divide(new double[] { m - 1, 0 }, m + 1, 0);
+		double[] s2 = multiply(s, s[0], s[1]);
+
+		double[] term = s;
+		double[] sum = s;
+		for (int k = 3; Math.abs(term[0]) > 0x1p-110; k += 2) {
+			term = multiply(term, s2[0], s2[1]);
+			double[] quotient = divide(term, k, 0);
+			sum = add(sum, quotient[0], quotient[1]);
+		}
+
+		return add(multiply(LN_2, e, 0), 2 * sum[0], 2 * sum[1]);
+	}
+
+	/**
+	 * Returns the sum of the double-double a and the double-double (bh, bl)
+	 *
+	 * @param a
+	 *            The first operand
+	 * @param bh
+	 *            High part of the second operand
+	 * @param bl
+	 *            Low part of the second operand
+	 * @return The sum
+	 */
+	private static double[] add(double[] a, double bh, double bl) {
+		double s = a[0] + bh;
+		double v = s - a[0];
+		double e = (a[0] - (s - v)) + (bh - v) + a[1] + bl;
+
+		double hi = s + e;
+		return new double[] { hi, e - (hi - s) };
+	}
+
+	/**
+	 * Returns the product of the double-double a and the double-double (bh,
+	 * bl)
+	 *
+	 * @param a
+	 *            The first operand
+	 * @param bh
+	 *            High part of the second operand
+	 * @param bl
+	 *            Low part of the second operand
+	 * @return The product
+	 */
+	private static double[] multiply(double[] a, double bh, double bl) {
+		double p = a[0] * bh;
+		double e = Math.fma(a[0], bh, -p) + (a[0] * bl + a[1] * bh);
+
+		double hi = p + e;
+		return new double[] { hi, e - (hi - p) };
+	}
+
+	/**
+	 * Returns the quotient of the double-double a by the double-double (bh,
+	 * bl)
+	 *
+	 * @param a
+	 *            The dividend
+	 * @param bh
+	 *            High part of the divisor
+	 * @param bl
+	 *            Low part of the divisor
+	 * @return The quotient
+	 */
+	private static double[] divide(double[] a, double bh, double bl) {
+		double q = a[0] / bh;
+
+		// Remainder a - q x b, then correct q by remainder / b
+		double[] r = add(a, -q * bh, 0);
+		r = add(r, -Math.fma(q, bh, -q * bh), -q * bl);
+		double e = r[0] / bh;
+
+		double hi = q + e;
+		return new double[] { hi, e - (hi - q) };
+	}
+
+	/**
+	 * Returns the digits of n! when the logarithm is not precise enough, if n
+	 * is small enough to compute them
+	 *
+	 * @param n
+	 *            An integer value
+	 * @param query
+	 *            Name of the query, for the error message
+	 * @return The digits of n!
+	 * @throws ArithmeticException
+	 *             If n is greater than {@link #EXACT_LIMIT}
+	 */
+	private String exactDigits(int n, String query) {
+		if (n > EXACT_LIMIT)
+			throw new ArithmeticException("Cannot decide the " + query + " of " + n + "! from its logarithm");
+
+		return factorial.getFactorial(n);
+	}
+
+	/**
+	 * Returns the factorial of n, for n &lt;= 20
+	 *
+	 * @param n
+	 *            An integer value from 0 to 20
+	 * @return n!
+	 */
+	private static long smallFactorial(int n) {
+		long product = 1;
+		for (int i = 2; i <= n; i++)
+			product *= i;
+
+		return product;
+	}
+
+	/**
+	 * Checks that a number is not negative
+	 *
+	 * @param n
+	 *            An integer value
+	 * @throws IllegalArgumentException
+	 *             If n is negative
+	 */
+	private static void checkNumber(int n) {
+		if (n < 0)
+			throw new IllegalArgumentException("Number must not be negative");
+	}
+
+	/**
+	 * An Appendable which adds up the decimal digits appended to it
+	 */
+	private static final class DigitSum implements Appendable {
+
+		/**
+		 * Sum of the digits appended so far
+		 */
+		private long total;
+
+		@Override
+		public Appendable append(CharSequence csq) {
+			return append(csq, 0, csq.length());
+		}
+
+		@Override
+		public Appendable append(CharSequence csq, int start, int end) {
+			for (int i = start; i < end; i++)
+				total += csq.charAt(i) - '0';
+
+			return this;
+		}
+
+		@Override
+		public Appendable append(char c) {
+			total += c - '0';
+
+			return this;
+		}
+	}
+}
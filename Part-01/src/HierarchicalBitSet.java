@@ -0,0 +1,206 @@
+/**
+ * <p>
+ * A set of bits of fixed size, which finds the next or the previous set bit
+ * from any index in O(log<sub>64</sub> n) time, whatever the distance to that
+ * bit. The bits are stored in words of 64 bits, and every level above holds 1
+ * bit per word of the level below, set if that word is not zero. A search
+ * which finds no bit in its word goes up to find the next non zero word, then
+ * down again. The top level is a single word.
+ * </p>
+ * <p>
+ * Setting or clearing a bit updates the levels above only when the word
+ * becomes non zero or zero respectively.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see IncrementalArraySort
+ */
+final class HierarchicalBitSet {
+
+	/**
+	 * The levels of words, from the bits themselves to the top word
+	 */
+	private final long[][] levels;
+
+	/**
+	 * Constructor, to be called while creating the set with all bits clear
+	 *
+	 * @param size
+	 *            Number of bits
+	 */
+	HierarchicalBitSet(int size) {
+		int count = 1;
+		for (int words = wordCount(size); words > 1; words = wordCount(words))
+			count++;
+
+		levels = new long[count][];
+
+		int bits = size;
+		for (int level = 0; level < count; level++) {
+			levels[level] = new long[Math.max(wordCount(bits), 1)];
+			bits = levels[level].length;
+		}
+	}
+
+	/**
+	 * Returns the number of words holding the given number of bits
+	 *
+	 * @param bits
+	 *            Number of bits
+	 * @return Number of words
+	 */
+	private static int wordCount(int bits) {
+		return (bits + 63) >>> 6;
+	}
+
+	/**
+	 * Returns the bit at an index
+	 *
+	 * @param index
+	 *            Index of the bit
+	 * @return true, if the bit is set. Otherwise, false
+	 */
+	boolean get(int index) {
+		return (levels[0][index >>> 6] & (1L << index)) != 0;
+	}
+
+	/**
+	 * Sets or clears the bit at an index
+	 *
+	 * @param index
+	 *            Index of the bit
+	 * @param value
+	 *            true to set the bit, false to clear it
+	 */
+	void set(int index, boolean value) {
+		if (value)
+			set(index);
+		else
+			clear(index);
+	}
+
+	/**
+	 * Sets the bit at an index
+	 *
+	 * @param index
+	 *            Index of the bit
+	 */
+	void set(int index) {
+		for (long[] words : levels) {
+			int w = index >>> 6;
+			long previous = words[w];
+			words[w] = previous | (1L << index);
+
+			// The level above only changes when the word was zero
+			if (previous != 0)
+				return;
+
+			index = w;
+		}
+	}
+
+	/**
+	 * Clears the bit at an index
+	 *
+	 * @param index
+	 *            Index of the bit
+	 */
+	void clear(int index) {
+		for (long[] words : levels) {
+			int w = index >>> 6;
+			long previous = words[w];
+			words[w] = previous & ~(1L << index);
+
+			// The level above only changes when the word becomes zero
+			if (previous == 0 || words[w] != 0)
+				return;
+
+			index = w;
+		}
+	}
+
+	/**
+	 * Returns the index of the first set bit at or after an index
+	 *
+	 * @param from
+	 *            Index to start from, may be negative
+	 * @return Index of the set bit, or -1 if there is none
+	 */
+	int nextSetBit(int from) {
+		return next(0, Math.max(from, 0));
+	}
+
+	/**
+	 * Returns the index of the last set bit at or before an index
+	 *
+	 * @param from
+	 *            Index to start from, may be greater than the size
+	 * @return Index of the set bit, or -1 if there is none
+	 */
+	int previousSetBit(int from) {
+		return previous(0, Math.min(from, (levels[0].length << 6) - 1));
+	}
+
+	/**
+	 * Returns the index of the first set bit of a level at or after an index
+	 *
+	 * @param level
+	 *            The level
+	 * @param from
+	 *            Index to start from, not negative
+	 * @return Index of the set bit, or -1 if there is none
+	 */
+	private int next(int level, int from) {
+		long[] words = levels[level];
+		int w = from >>> 6;
+		if (w >= words.length)
+			return -1;
+
+		long bits = words[w] & (-1L << from);
+		if (bits != 0)
+			return (w << 6) + Long.numberOfTrailingZeros(bits);
+
+		if (level + 1 == levels.length)
+			return -1;
+
+		// Find the next non zero word on the level above
+		int next = next(level + 1, w + 1);
+		if (next < 0)
+			return -1;
+
+		return (next << 6) + Long.numberOfTrailingZeros(words[next]);
+	}
+
+	/**
+	 * Returns the index of the last set bit of a level at or before an index
+	 *
+	 * @param level
+	 *            The level
+	 * @param from
+	 *            Index to start from, less than the number of bits of the
+	 *            level
+	 * @return Index of the set bit, or -1 if there is none
+	 */
+	private int previous(int level, int from) {
+		if (from < 0)
+			return -1;
+
+		long[] words = levels[level];
+		int w = from >>> 6;
+
+		long bits = words[w] & (-1L >>> (63 - (from & 63)));
+		if (bits != 0)
+			return (w << 6) + 63 - Long.numberOfLeadingZeros(bits);
+
+		if (level + 1 == levels.length)
+			return -1;
+
+		// Find the previous non zero word on the level above
+		int previous = previous(level + 1, w - 1);
+		if (previous < 0)
+			return -1;
+
+		return (previous << 6) + 63 - Long.numberOfLeadingZeros(words[previous]);
+	}
+}
@@ -0,0 +1,276 @@
+/**
+ * <p>
+ * This class maintains the analysis of {@link ArraySort} for an array which is
+ * modified one element at a time. Rather than scanning the whole array after
+ * every change, it keeps an index of the pairs of neighbours (k, k + 1) in
+ * three {@link HierarchicalBitSet}s: the descents (d[k] &gt; d[k + 1]), the
+ * ascents (d[k] &lt; d[k + 1]) and the pairs of different elements, together
+ * with the number of descents.
+ * </p>
+ * <p>
+ * Setting an element with {@link #set(int, int)} only changes the 2 pairs it
+ * belongs to, and updates the index in O(log<sub>64</sub> n) time. The
+ * verdict of {@link ArraySortAnalyzer#decide(DescentView, SortResult)} only
+ * needs the number of descents, the first and the last descent, the ends of
+ * the runs of equal elements around them and whether an ascent lies between
+ * the first and the last descent, all of which are found by a few searches in
+ * the bit sets, and compares a few elements next to these ends. A swap is
+ * only checked when there are at most {@link DescentSummary#MAX_POSITIONS}
+ * descents. So the verdict is computed in O(log<sub>64</sub> n) time as well,
+ * when it is first requested after a change.
+ * </p>
+ * <p>
+ * The array is copied by the constructor, so that it can only be changed
+ * through {@link #set(int, int)}. Like in ArraySort, the indexes returned by
+ * {@link #getLIndex()} and {@link #getRIndex()} start from 1.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see ArraySort
+ * @see HierarchicalBitSet
+ */
+public class IncrementalArraySort implements SortAnalysis {
+
+	/**
+	 * Copy of the array
+	 */
+	private final int[] numArray;
+
+	/**
+	 * Pairs (k, k + 1) such that d[k] &gt; d[k + 1]
+	 */
+	private final HierarchicalBitSet descents;
+
+	/**
+	 * Pairs (k, k + 1) such that d[k] &lt; d[k + 1]
+	 */
+	private final HierarchicalBitSet ascents;
+
+	/**
+	 * Pairs (k, k + 1) such that d[k] != d[k + 1]
+	 */
+	private final HierarchicalBitSet changes;
+
+	/**
+	 * Number of descents
+	 */
+	private int count;
+
+	/**
+	 * true, if the verdict reflects the current content of the array
+	 */
+	private boolean analyzed;
+
+	/**
+	 * View of the array through the index of the pairs of neighbours
+	 */
+	private final Pairs pairs;
+
+	/**
+	 * The verdict for the content of the array when it was last analyzed
+	 */
+	private final SortResult result;
+
+	/**
+	 * Constructor, to be called while creating the object of this class. The
+	 * index of the array is built in O(n) time.
+	 *
+	 * @param num
+	 *            The array, which is copied
+	 */
+	public IncrementalArraySort(int[] num) {
+		numArray = num.clone();
+
+		int pairs = Math.max(numArray.length - 1, 0);
+		descents = new HierarchicalBitSet(pairs);
+		ascents = new HierarchicalBitSet(pairs);
+		changes = new HierarchicalBitSet(pairs);
+
+		for (int k = 0; k < pairs; k++)
+			updatePair(k);
+
+		this.pairs = new Pairs();
+		result = new SortResult();
+	}
+
+	/**
+	 * Returns the number of elements of the array
+	 *
+	 * @return Length of the array
+	 */
+	public int getLength() {
+		return numArray.length;
+	}
+
+	/**
+	 * Returns the element at an index, starting from 0
+	 *
+	 * @param index
+	 *            Index of the element
+	 * @return The element
+	 */
+	public int get(int index) {
+		return numArray[index];
+	}
+
+	/**
+	 * Sets the element at an index, starting from 0, and updates the index of
+	 * the pairs of neighbours
+	 *
+	 * @param index
+	 *            Index of the element
+	 * @param value
+	 *            The new element
+	 */
+	public void set(int index, int value) {
+		if (numArray[index] == value)
+			return;
+
+		numArray[index] = value;
+
+		if (index > 0)
+			updatePair(index - 1);
+		if (index + 1 < numArray.length)
+			updatePair(index);
+
+		analyzed = false;
+	}
+
+	/**
+	 * Returns the number of descents, i.e. the pairs of neighbours which are
+	 * out of order
+	 *
+	 * @return Number of descents
+	 */
+	public int getDescentCount() {
+		return count;
+	}
+
+	/**
+	 * Updates the bit sets and the number of descents for the pair of
+	 * neighbours (k, k + 1)
+	 *
+	 * @param k
+	 *            Index of the left element of the pair
+	 */
+	private void updatePair(int k) {
+		int order = Integer.compare(numArray[k], numArray[k + 1]);
+
+		if (descents.get(k))
+			count--;
+		if (order > 0)
+			count++;
+
+		descents.set(k, order > 0);
+		ascents.set(k, order < 0);
+		changes.set(k, order != 0);
+	}
+
+	/**
+	 * Returns the sort method (Either one of the sort method constants of
+	 * ArraySort) for the current content of the array
+	 *
+	 * @return One of the selected sort method constant
+	 */
+	@Override
+	public int getSortMethod() {
+		if (!analyzed)
+			analyzeArray();
+
+		return result.getSortMethod();
+	}
+
+	/**
+	 * Returns the index of the left element of the swap or the reversal for
+	 * the current content of the array, assuming that the array is indexed
+	 * from 1
+	 *
+	 * @return Index of the left most element
+	 */
+	@Override
+	public int getLIndex() {
+		if (!analyzed)
+			analyzeArray();
+
+		return result.getLIndex();
+	}
+
+	/**
+	 * Returns the index of the right element of the swap or the reversal for
+	 * the current content of the array, assuming that the array is indexed
+	 * from 1
+	 *
+	 * @return Index of the right most element
+	 */
+	@Override
+	public int getRIndex() {
+		if (!analyzed)
+			analyzeArray();
+
+		return result.getRIndex();
+	}
+
+	/**
+	 * Computes the verdict from the index of the pairs of neighbours, as
+	 * {@link ArraySort#analyzeArray()} does from a scan of the array. The
+	 * getters call this method when the array has changed since the last
+	 * analysis.
+	 */
+	@Override
+	public void analyzeArray() {
+		ArraySortAnalyzer.decide(pairs, result);
+
+		analyzed = true;
+	}
+
+	/**
+	 * View of the array through its descents, found by searches in the bit
+	 * sets. The runs of equal elements around the descents end at the
+	 * nearest pairs of different elements.
+	 */
+	private final class Pairs implements DescentView {
+
+		@Override
+		public long length() {
+			return numArray.length;
+		}
+
+		@Override
+		public long descentCount() {
+			return count;
+		}
+
+		@Override
+		public long firstDescent() {
+			return descents.nextSetBit(0);
+		}
+
+		@Override
+		public long lastDescent() {
+			return descents.previousSetBit(numArray.length);
+		}
+
+		@Override
+		public boolean isBroken() {
+			int ascent = ascents.nextSetBit(descents.nextSetBit(0));
+			return ascent >= 0 && ascent < lastDescent();
+		}
+
+		@Override
+		public long left() {
+			return changes.previousSetBit(descents.nextSetBit(0) - 1) + 1;
+		}
+
+		@Override
+		public long right() {
+			int y = changes.nextSetBit(descents.previousSetBit(numArray.length) + 1);
+			return (y < 0) ? numArray.length - 1 : y;
+		}
+
+		@Override
+		public int compare(long i, long j) {
+			return Integer.compare(numArray[(int) i], numArray[(int) j]);
+		}
+	}
+}
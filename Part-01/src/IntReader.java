@@ -0,0 +1,380 @@
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * <p>
+ * A reader of signed decimal integers separated by whitespace, which parses the
+ * bytes of its input directly, without creating any String, regular expression
+ * or other object per integer. The input is read from an InputStream, such as
+ * standard input, or a channel, such as a FileChannel, through a buffer of
+ * {@link #DEFAULT_BUFFER_SIZE} bytes, or parsed in place from a ByteBuffer
+ * holding all of it, for e.g. a mapped file.
+ * </p>
+ * <p>
+ * An integer is an optional sign, + or -, followed by one or more ASCII digits,
+ * and must fit in an int. Integers are separated by any amount of whitespace,
+ * i.e. spaces, tabs, line separators and the other ASCII characters for which
+ * {@link Character#isWhitespace(char)} is true, so that the integers may be
+ * split over lines in any manner. The reader keeps track of the line and the
+ * column of its position, which are reported in the message of the exception
+ * thrown for a malformed integer or a premature end of input.
+ * </p>
+ * <p>
+ * Once an integer has been read, the reader does not read further than the
+ * whitespace byte which ends it, so that it can be used interactively with
+ * prompts between the integers.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see ArraySort
+ * @see MatrixRotation
+ */
+public class IntReader implements Closeable {
+
+	/**
+	 * Size of the buffer used to read an InputStream or a channel, in bytes
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The input stream, or null
+	 */
+	private final InputStream in;
+
+	/**
+	 * The input channel, or null
+	 */
+	private final ReadableByteChannel channel;
+
+	/**
+	 * Bytes of the input from the current offset
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Backing array of the buffer when reading an InputStream, or null
+	 */
+	private final byte[] array;
+
+	/**
+	 * Index of the next byte to parse in the buffer
+	 */
+	private int position;
+
+	/**
+	 * Index after the last byte available in the buffer
+	 */
+	private int limit;
+
+	/**
+	 * Offset in the input of the first byte of the buffer
+	 */
+	private long offset;
+
+	/**
+	 * Number of the current line, starting from 1
+	 */
+	private long line;
+
+	/**
+	 * Offset in the input of the first byte of the current line
+	 */
+	private long lineStart;
+
+	/**
+	 * Number of integers read so far
+	 */
+	private long count;
+
+	/**
+	 * Constructor, to be called to read the integers of an InputStream
+	 *
+	 * @param in
+	 *            The input stream
+	 */
+	public IntReader(InputStream in) {
+		this(in, null, ByteBuffer.wrap(new byte[DEFAULT_BUFFER_SIZE]), 0);
+	}
+
+	/**
+	 * Constructor, to be called to read the integers of a channel
+	 *
+	 * @param channel
+	 *            The channel
+	 */
+	public IntReader(ReadableByteChannel channel) {
+		this(null, channel, ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE), 0);
+	}
+
+	/**
+	 * Constructor, to be called to parse the integers of a buffer in place,
+	 * from its position to its limit. The buffer itself is not modified.
+	 *
+	 * @param buffer
+	 *            The buffer
+	 */
+	public IntReader(ByteBuffer buffer) {
+		this(null, null, buffer.slice(), buffer.remaining());
+	}
+
+	/**
+	 * Constructor, to be called with the source and the buffer
+	 *
+	 * @param in
+	 *            The input stream, or null
+	 * @param channel
+	 *            The input channel, or null
+	 * @param buffer
+	 *            The buffer
+	 * @param limit
+	 *            Number of bytes available in the buffer
+	 */
+	private IntReader(InputStream in, ReadableByteChannel channel, ByteBuffer buffer, int limit) {
+		this.in = in;
+		this.channel = channel;
+		this.buffer = buffer;
+		this.array = (in != null) ? buffer.array() : null;
+		this.limit = limit;
+		line = 1;
+	}
+
+	/**
+	 * Reads the next integer
+	 *
+	 * @return The integer
+	 * @throws NumberFormatException
+	 *             If the next characters other than whitespace are not an
+	 *             integer, or the integer does not fit in an int
+	 * @throws EOFException
+	 *             If there is no integer before the end of input
+	 * @throws IOException
+	 *             If the input cannot be read
+	 */
+	public int nextInt() throws IOException {
+		skipWhitespace();
+
+		int c = peek();
+		if (c < 0)
+			throw new EOFException("Expected an integer at " + location() + ", found end of input");
+
+		long start = offset + position;
+		boolean negative = (c == '-');
+		if (c == '-' || c == '+') {
+			position++;
+			c = peek();
+		}
+
+		if (c < '0' || c > '9')
+			throw error("Expected a digit", c);
+
+		// Accumulate the negated value, whose range includes the magnitude of
+		// Integer.MIN_VALUE
+		int min = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+		int result = 0;
+		do {
+			int digit = c - '0';
+			if (result < min / 10 || result * 10 < min + digit)
+				throw new NumberFormatException("Integer out of range at line " + line + ", column "
+						+ (start - lineStart + 1));
+
+			result = result * 10 - digit;
+			position++;
+			c = peek();
+		} while (c >= '0' && c <= '9');
+
+		if (c >= 0 && !isWhitespace(c))
+			throw error("Expected whitespace after an integer", c);
+
+		count++;
+
+		return negative ? result : -result;
+	}
+
+	/**
+	 * Reads the next integers into a new array
+	 *
+	 * @param n
+	 *            Number of integers to read
+	 * @return The array of integers
+	 * @throws NumberFormatException
+	 *             If one of the integers is malformed or out of range
+	 * @throws EOFException
+	 *             If the input ends before n integers are read
+	 * @throws IOException
+	 *             If the input cannot be read
+	 */
+	public int[] nextInts(int n) throws IOException {
+		int[] values = new int[n];
+		for (int i = 0; i < n; i++)
+			values[i] = nextInt();
+
+		return values;
+	}
+
+	/**
+	 * Returns true if there are characters other than whitespace before the
+	 * end of input. This method may block to read the input.
+	 *
+	 * @return true, if there is another integer to read, or a malformed one
+	 * @throws IOException
+	 *             If the input cannot be read
+	 */
+	public boolean hasNext() throws IOException {
+		skipWhitespace();
+
+		return peek() >= 0;
+	}
+
+	/**
+	 * Returns the number of integers read so far
+	 *
+	 * @return Number of integers
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the line of the current position, starting from 1
+	 *
+	 * @return Line number
+	 */
+	public long getLine() {
+		return line;
+	}
+
+	/**
+	 * Returns the column of the current position, in bytes starting from 1
+	 *
+	 * @return Column number
+	 */
+	public long getColumn() {
+		return offset + position - lineStart + 1;
+	}
+
+	/**
+	 * Closes the input stream or the channel, if any
+	 *
+	 * @throws IOException
+	 *             If the input cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		if (in != null)
+			in.close();
+		if (channel != null)
+			channel.close();
+	}
+
+	/**
+	 * Skips the whitespace at the current position, counting the lines
+	 *
+	 * @throws IOException
+	 *             If the input cannot be read
+	 */
+	private void skipWhitespace() throws IOException {
+		for (int c; (c = peek()) >= 0 && isWhitespace(c); position++)
+			if (c == '\n') {
+				line++;
+				lineStart = offset + position + 1;
+			}
+	}
+
+	/**
+	 * Returns the byte at the current position, reading more input if the
+	 * buffer has been consumed
+	 *
+	 * @return The byte, from 0 to 255, or -1 at the end of input
+	 * @throws IOException
+	 *             If the input cannot be read
+	 */
+	private int peek() throws IOException {
+		if (position == limit && !fill())
+			return -1;
+
+		return buffer.get(position) & 0xFF;
+	}
+
+	/**
+	 * Replaces the consumed buffer with the next bytes of the input, waiting
+	 * until at least one byte is available
+	 *
+	 * @return true, if bytes have been read. Otherwise, false at the end of
+	 *         input
+	 * @throws IOException
+	 *             If the input cannot be read
+	 */
+	private boolean fill() throws IOException {
+		if (in == null && channel == null)
+			return false;
+
+		offset += limit;
+		position = 0;
+		limit = 0;
+
+		int read;
+		do {
+			if (in != null)
+				read = in.read(array, 0, array.length);
+			else {
+				buffer.clear();
+				read = channel.read(buffer);
+			}
+		} while (read == 0);
+
+		if (read < 0)
+			return false;
+
+		limit = read;
+
+		return true;
+	}
+
+	/**
+	 * Returns true if a byte is an ASCII whitespace character, as defined by
+	 * {@link Character#isWhitespace(char)}
+	 *
+	 * @param c
+	 *            The byte
+	 * @return true, if it is whitespace. Otherwise, false
+	 */
+	private static boolean isWhitespace(int c) {
+		return c == ' ' || (c >= '\t' && c <= '\r') || (c >= 0x1C && c <= 0x1F);
+	}
+
+	/**
+	 * Returns the description of the current position
+	 *
+	 * @return The line and the column
+	 */
+	private String location() {
+		return "line " + line + ", column " + getColumn();
+	}
+
+	/**
+	 * Returns the exception reporting an unexpected character at the current
+	 * position
+	 *
+	 * @param expected
+	 *            What was expected
+	 * @param c
+	 *            The unexpected byte, or -1 at the end of input
+	 * @return The exception
+	 */
+	private NumberFormatException error(String expected, int c) {
+		String found;
+		if (c < 0)
+			found = "end of input";
+		else if (c >= 0x20 && c < 0x7F)
+			found = "'" + (char) c + "'";
+		else
+			found = String.format("byte 0x%02X", c);
+
+		return new NumberFormatException(expected + " at " + location() + ", found " + found);
+	}
+}
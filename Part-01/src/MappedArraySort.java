@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * <p>
+ * This class performs the analysis of {@link ArraySort} on an array of
+ * integers held outside the heap, for e.g. a file of binary integers mapped
+ * into memory. The array is given as a sequence of IntBuffers, called
+ * segments, which are treated as a single array of their remaining elements
+ * placed one after the other. A file is mapped by {@link #open(Path, ByteOrder)}
+ * in segments of at most {@link #SEGMENT_INTS} integers, since a single
+ * mapping is limited to 2 GB.
+ * </p>
+ * <p>
+ * The elements are read directly from the buffers, without any copy to the
+ * heap, in a single pass by a {@link StreamingSortVerifier}, which holds a
+ * fixed amount of state. Indexes are of type long, so that arrays of more
+ * than Integer.MAX_VALUE elements can be analyzed. Like in ArraySort, the
+ * indexes returned by {@link #getLIndex()} and {@link #getRIndex()} start from
+ * 1.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see ArraySort
+ * @see <a href=
+ *      "https://docs.oracle.com/javase/7/docs/api/java/nio/channels/FileChannel.html">java.nio.channels.FileChannel</a>
+ */
+public class MappedArraySort {
+
+	/**
+	 * Maximum number of integers in a segment mapped by
+	 * {@link #open(Path, ByteOrder)}
+	 */
+	public static final int SEGMENT_INTS = 1 << 28;
+
+	/**
+	 * Size of an integer in bytes
+	 */
+	private static final int INT_BYTES = 4;
+
+	/**
+	 * The segments of the array
+	 */
+	private final IntBuffer[] segments;
+
+	/**
+	 * Number of elements of the array
+	 */
+	private final long length;
+
+	/**
+	 * Verifier computing the verdict
+	 */
+	private final StreamingSortVerifier verifier;
+
+	/**
+	 * Constructor, to be called while creating the object of this class. The
+	 * positions and limits of the buffers must not be changed afterwards.
+	 *
+	 * @param segments
+	 *            The segments of the array, in order. The elements of a
+	 *            segment are those between its position and its limit.
+	 */
+	public MappedArraySort(IntBuffer... segments) {
+		this.segments = segments.clone();
+
+		long total = 0;
+		for (IntBuffer segment : segments)
+			total += segment.remaining();
+
+		length = total;
+		verifier = new StreamingSortVerifier();
+	}
+
+	/**
+	 * Maps a file of binary integers of 4 bytes each into memory, in read only
+	 * mode, and returns an object to analyze them. The file is closed once
+	 * mapped, while the mapping remains valid.
+	 *
+	 * @param file
+	 *            The file
+	 * @param order
+	 *            The byte order of the integers
+	 * @return The object analyzing the integers of the file
+	 * @throws IOException
+	 *             If the file cannot be mapped, or its size is not a multiple
+	 *             of 4 bytes
+	 */
+	public static MappedArraySort open(Path file, ByteOrder order) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size % INT_BYTES != 0)
+				throw new IOException("Size of " + file + " is not a multiple of " + INT_BYTES + " bytes");
+
+			long count = size / INT_BYTES;
+			IntBuffer[] segments = new IntBuffer[(int) ((count + SEGMENT_INTS - 1) / SEGMENT_INTS)];
+
+			for (int i = 0; i < segments.length; i++) {
+				long first = (long) i * SEGMENT_INTS;
+				long ints = Math.min(SEGMENT_INTS, count - first);
+
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, first * INT_BYTES, ints * INT_BYTES)
+						.order(order).asIntBuffer();
+			}
+
+			return new MappedArraySort(segments);
+		}
+	}
+
+	/**
+	 * Returns the number of elements of the array
+	 *
+	 * @return Length of the array
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the element at the index passed as parameter, starting from 0
+	 *
+	 * @param index
+	 *            Index of the element
+	 * @return The element
+	 * @throws IndexOutOfBoundsException
+	 *             If index is negative or not less than the length
+	 */
+	public int get(long index) {
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+
+		for (IntBuffer segment : segments) {
+			if (index < segment.remaining())
+				return segment.get(segment.position() + (int) index);
+
+			index -= segment.remaining();
+		}
+
+		throw new IllegalStateException();
+	}
+
+	/**
+	 * This method should be called to start analyzing the array to determine
+	 * the possibility to sort, as {@link ArraySort#analyzeArray()} does. The
+	 * segments are read one after the other from their position to their
+	 * limit, with absolute reads which do not change the buffers.
+	 */
+	public void analyzeArray() {
+		verifier.reset();
+
+		for (IntBuffer segment : segments)
+			for (int i = segment.position(), end = segment.limit(); i < end; i++)
+				verifier.accept(segment.get(i));
+
+		verifier.finish();
+	}
+
+	/**
+	 * Returns the sort method (Either one of the sort method constants of
+	 * ArraySort) set by {@link #analyzeArray()} method
+	 *
+	 * @return One of the selected sort method constant
+	 */
+	public int getSortMethod() {
+		return verifier.getSortMethod();
+	}
+
+	/**
+	 * Returns the index of the left element of the swap or the reversal,
+	 * assuming that the array is indexed from 1
+	 *
+	 * @return Index of the left most element
+	 */
+	public long getLIndex() {
+		return verifier.getLIndex();
+	}
+
+	/**
+	 * Returns the index of the right element of the swap or the reversal,
+	 * assuming that the array is indexed from 1
+	 *
+	 * @return Index of the right most element
+	 */
+	public long getRIndex() {
+		return verifier.getRIndex();
+	}
+}
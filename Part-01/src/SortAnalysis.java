@@ -0,0 +1,143 @@
+import java.util.Comparator;
+
+/**
+ * <p>
+ * The result API shared by the analyzers which decide whether an array is
+ * sorted, can be sorted by swapping 2 elements or by reversing a sub-segment,
+ * as described in {@link ArraySort}. The verdict is one of the sort method
+ * constants of ArraySort, and the indexes start from 1.
+ * </p>
+ * <p>
+ * The static factory methods return an analyzer specialized for the type of
+ * the array, so that arrays of primitive types are analyzed without widening
+ * or boxing their elements :-
+ * <ul>
+ * <li>int[] is analyzed by {@link ArraySort}.</li>
+ * <li>long[], short[] and byte[] are compared by their signed values.</li>
+ * <li>double[] is compared as by {@link Double#compare(double, double)}, the
+ * order used by {@link java.util.Arrays#sort(double[])}: -0.0 is less than
+ * 0.0, and NaN is greater than every other value, including positive
+ * infinity, and equal to itself.</li>
+ * <li>Object arrays are compared by a Comparator.</li>
+ * </ul>
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see ArraySort
+ */
+public interface SortAnalysis {
+
+	/**
+	 * Analyzes the array to determine the possibility to sort
+	 */
+	void analyzeArray();
+
+	/**
+	 * Returns the sort method (Either one of the sort method constants of
+	 * ArraySort) set by {@link #analyzeArray()}
+	 *
+	 * @return One of the selected sort method constant
+	 */
+	int getSortMethod();
+
+	/**
+	 * Returns the index of the left element of the swap or the reversal,
+	 * assuming that the array is indexed from 1
+	 *
+	 * @return Index of the left most element
+	 */
+	int getLIndex();
+
+	/**
+	 * Returns the index of the right element of the swap or the reversal,
+	 * assuming that the array is indexed from 1
+	 *
+	 * @return Index of the right most element
+	 */
+	int getRIndex();
+
+	/**
+	 * Returns an analyzer for an array of int
+	 *
+	 * @param a
+	 *            The array
+	 * @return The analyzer
+	 */
+	static SortAnalysis of(int[] a) {
+		return new ArraySort(a);
+	}
+
+	/**
+	 * Returns an analyzer for an array of long
+	 *
+	 * @param a
+	 *            The array
+	 * @return The analyzer
+	 */
+	static SortAnalysis of(long[] a) {
+		return new ComparingArraySort.OfLong(a);
+	}
+
+	/**
+	 * Returns an analyzer for an array of double, ordered as by
+	 * {@link Double#compare(double, double)}
+	 *
+	 * @param a
+	 *            The array
+	 * @return The analyzer
+	 */
+	static SortAnalysis of(double[] a) {
+		return new ComparingArraySort.OfDouble(a);
+	}
+
+	/**
+	 * Returns an analyzer for an array of short
+	 *
+	 * @param a
+	 *            The array
+	 * @return The analyzer
+	 */
+	static SortAnalysis of(short[] a) {
+		return new ComparingArraySort.OfShort(a);
+	}
+
+	/**
+	 * Returns an analyzer for an array of byte
+	 *
+	 * @param a
+	 *            The array
+	 * @return The analyzer
+	 */
+	static SortAnalysis of(byte[] a) {
+		return new ComparingArraySort.OfByte(a);
+	}
+
+	/**
+	 * Returns an analyzer for an array of objects ordered by a Comparator
+	 *
+	 * @param <T>
+	 *            Type of the elements
+	 * @param a
+	 *            The array
+	 * @param comparator
+	 *            The order of the elements
+	 * @return The analyzer
+	 */
+	static <T> SortAnalysis of(T[] a, Comparator<? super T> comparator) {
+		return new ComparingArraySort.OfObject<>(a, comparator);
+	}
+
+	/**
+	 * Returns an analyzer for an array of objects in their natural order
+	 *
+	 * @param <T>
+	 *            Type of the elements
+	 * @param a
+	 *            The array
+	 * @return The analyzer
+	 */
+	static <T extends Comparable<? super T>> SortAnalysis of(T[] a) {
+		return of(a, Comparator.<T> naturalOrder());
+	}
+}
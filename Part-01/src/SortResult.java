@@ -0,0 +1,105 @@
+/**
+ * <p>
+ * A holder for the verdict of an {@link ArraySortAnalyzer}, supplied by the
+ * caller so that the same holder can be filled again by every analysis. The
+ * verdict is one of the sort method constants of {@link ArraySort}, and the
+ * indexes of the swap or the reversal are relative to the start of the
+ * analyzed slice, starting from 1. The other analyzers of this package keep
+ * their verdict in a holder as well, with indexes of type long for sequences
+ * longer than an array.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see ArraySortAnalyzer
+ */
+public final class SortResult {
+
+	/**
+	 * The sorting method as indicated by sort method constants of ArraySort
+	 */
+	private int method;
+
+	/**
+	 * Index of the left element, starting from 0
+	 */
+	private long lindex;
+
+	/**
+	 * Index of the right element, starting from 0
+	 */
+	private long rindex;
+
+	/**
+	 * Default constructor which initializes the instance variables
+	 */
+	public SortResult() {
+		set(ArraySort.NOT_POSSIBLE, -1, -1);
+	}
+
+	/**
+	 * Sets the verdict
+	 *
+	 * @param method
+	 *            One of the sort method constants of ArraySort
+	 * @param lindex
+	 *            Index of the left element, starting from 0
+	 * @param rindex
+	 *            Index of the right element, starting from 0
+	 */
+	void set(int method, long lindex, long rindex) {
+		this.method = method;
+		this.lindex = lindex;
+		this.rindex = rindex;
+	}
+
+	/**
+	 * Returns the sort method (Either one of the sort method constants of
+	 * ArraySort)
+	 *
+	 * @return One of the selected sort method constant
+	 */
+	public int getSortMethod() {
+		return method;
+	}
+
+	/**
+	 * Returns the index of the left element of the swap or the reversal,
+	 * assuming that the slice is indexed from 1
+	 *
+	 * @return Index of the left most element
+	 */
+	public int getLIndex() {
+		return (int) lindex + 1;
+	}
+
+	/**
+	 * Returns the index of the right element of the swap or the reversal,
+	 * assuming that the slice is indexed from 1
+	 *
+	 * @return Index of the right most element
+	 */
+	public int getRIndex() {
+		return (int) rindex + 1;
+	}
+
+	/**
+	 * Returns the index of the left element of the swap or the reversal,
+	 * starting from 0
+	 *
+	 * @return Index of the left most element, or -1
+	 */
+	long getLeft() {
+		return lindex;
+	}
+
+	/**
+	 * Returns the index of the right element of the swap or the reversal,
+	 * starting from 0
+	 *
+	 * @return Index of the right most element, or -1
+	 */
+	long getRight() {
+		return rindex;
+	}
+}
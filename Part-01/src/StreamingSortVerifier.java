@@ -0,0 +1,395 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * This class decides, like {@link ArraySort}, whether a sequence of integers
+ * is sorted, can be sorted by swapping 2 elements or by reversing a
+ * sub-segment, but reads the sequence only once from left to right without
+ * storing it. The elements are passed one by one to {@link #accept(int)}, or
+ * read from an IntStream, an iterator or a stream of binary integers, and the
+ * verdict is available once {@link #finish()} has been called.
+ * </p>
+ * <p>
+ * The analysis of ArraySort only looks at the elements around the descents,
+ * i.e. the pairs of neighbours d[k] &gt; d[k + 1]. Before the first descent
+ * and after the last descent, the sequence is in ascending order. So the left
+ * candidate of both the swap and the reversal is the first index of the run of
+ * equal elements ending at the first descent, and the right candidate is the
+ * last index of the run of equal elements starting after the last descent.
+ * The verifier keeps these indexes, the elements next to them, the first and
+ * the last descent, the number of descents and whether an ascent lies between
+ * 2 descents. This state has a fixed size whatever the length of the sequence,
+ * and is enough for {@link ArraySortAnalyzer#decide(DescentView, SortResult)}
+ * to decide the verdict, since it only compares the elements next to the
+ * candidates.
+ * </p>
+ * <p>
+ * Indexes are of type long, so that sequences of more than Integer.MAX_VALUE
+ * elements can be verified. Like in ArraySort, the indexes returned by
+ * {@link #getLIndex()} and {@link #getRIndex()} start from 1.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see ArraySort
+ */
+public class StreamingSortVerifier implements IntConsumer {
+
+	/**
+	 * Size of the buffer used to read binary integers, in bytes
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Number of elements accepted so far
+	 */
+	private long length;
+
+	/**
+	 * The last element accepted
+	 */
+	private int previous;
+
+	/**
+	 * Index of the first element of the current run of equal elements
+	 */
+	private long runStart;
+
+	/**
+	 * The element before the current run of equal elements
+	 */
+	private int runPrevious;
+
+	/**
+	 * Number of descents
+	 */
+	private long count;
+
+	/**
+	 * Index of the first descent
+	 */
+	private long first;
+
+	/**
+	 * Index of the last descent
+	 */
+	private long last;
+
+	/**
+	 * true, if an ascent has been found after the first descent
+	 */
+	private boolean ascent;
+
+	/**
+	 * true, if an ascent has been found between 2 descents
+	 */
+	private boolean broken;
+
+	/**
+	 * Left candidate, the first index of the run of equal elements ending at
+	 * the first descent, or -1 if there is no descent
+	 */
+	private long x;
+
+	/**
+	 * Elements at indexes x - 1, x and x + 1
+	 */
+	private int xPrevious, xValue, xNext;
+
+	/**
+	 * Right candidate, the last index of the run of equal elements starting
+	 * after the last descent
+	 */
+	private long y;
+
+	/**
+	 * Elements at indexes y - 1, y and y + 1
+	 */
+	private int yPrevious, yValue, yNext;
+
+	/**
+	 * true, if the run of equal elements starting after the last descent has
+	 * ended, i.e. yNext is known
+	 */
+	private boolean yClosed;
+
+	/**
+	 * View of the sequence through the candidates, passed to the verdict
+	 */
+	private final Candidates candidates;
+
+	/**
+	 * The verdict set by {@link #finish()}
+	 */
+	private final SortResult result;
+
+	/**
+	 * Default constructor which initializes the instance variables
+	 */
+	public StreamingSortVerifier() {
+		candidates = new Candidates();
+		result = new SortResult();
+		reset();
+	}
+
+	/**
+	 * Discards the elements accepted so far, so that a new sequence can be
+	 * verified
+	 */
+	public void reset() {
+		length = 0;
+		runStart = 0;
+		count = 0;
+		first = -1;
+		last = -1;
+		ascent = false;
+		broken = false;
+		x = -1;
+		y = -1;
+		yClosed = false;
+		result.set(ArraySort.NOT_POSSIBLE, -1, -1);
+	}
+
+	/**
+	 * Accepts the next element of the sequence
+	 *
+	 * @param value
+	 *            The element
+	 */
+	@Override
+	public void accept(int value) {
+		if (length > 0) {
+			if (previous > value) {
+				long k = length - 1;
+
+				if (x < 0) {
+					first = k;
+					x = runStart;
+					xPrevious = runPrevious;
+					xValue = previous;
+					xNext = (x < k) ? previous : value;
+				} else if (ascent)
+					broken = true;
+
+				last = k;
+				count++;
+
+				// A new right candidate starts after every descent
+				y = length;
+				yPrevious = previous;
+				yValue = value;
+				yClosed = false;
+			} else {
+				if (previous < value && x >= 0)
+					ascent = true;
+
+				// Extend the right candidate over equal elements
+				if (x >= 0 && !yClosed) {
+					if (value == yValue) {
+						yPrevious = yValue;
+						y = length;
+					} else {
+						yNext = value;
+						yClosed = true;
+					}
+				}
+			}
+
+			if (previous != value) {
+				runStart = length;
+				runPrevious = previous;
+			}
+		}
+
+		previous = value;
+		length++;
+	}
+
+	/**
+	 * Ends the sequence and computes the verdict
+	 */
+	public void finish() {
+		ArraySortAnalyzer.decide(candidates, result);
+	}
+
+	/**
+	 * Verifies the sequence of integers of an iterator, discarding any element
+	 * accepted before
+	 *
+	 * @param values
+	 *            The iterator
+	 */
+	public void verify(PrimitiveIterator.OfInt values) {
+		reset();
+
+		while (values.hasNext())
+			accept(values.nextInt());
+
+		finish();
+	}
+
+	/**
+	 * Verifies the sequence of integers of an IntStream, in encounter order,
+	 * discarding any element accepted before
+	 *
+	 * @param values
+	 *            The stream
+	 */
+	public void verify(IntStream values) {
+		verify(values.iterator());
+	}
+
+	/**
+	 * Verifies a sequence of binary integers of 4 bytes each, read from an
+	 * InputStream until its end, discarding any element accepted before. The
+	 * stream is not closed.
+	 *
+	 * @param in
+	 *            The stream
+	 * @param order
+	 *            The byte order of the integers
+	 * @throws IOException
+	 *             If the stream cannot be read
+	 * @throws EOFException
+	 *             If the stream ends within an integer
+	 */
+	public void verify(InputStream in, ByteOrder order) throws IOException {
+		reset();
+
+		byte[] bytes = new byte[BUFFER_SIZE];
+		ByteBuffer buffer = ByteBuffer.wrap(bytes).order(order);
+		int available = 0;
+
+		for (int read; (read = in.read(bytes, available, bytes.length - available)) >= 0;) {
+			available += read;
+
+			int end = available & ~3;
+			for (int i = 0; i < end; i += 4)
+				accept(buffer.getInt(i));
+
+			// Keep the bytes of an incomplete integer for the next read
+			System.arraycopy(bytes, end, bytes, 0, available - end);
+			available -= end;
+		}
+
+		if (available != 0)
+			throw new EOFException("Input ends within an integer after " + length + " integers");
+
+		finish();
+	}
+
+	/**
+	 * Returns the number of elements accepted so far
+	 *
+	 * @return Length of the sequence
+	 */
+	public long getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the sort method (Either one of the sort method constants of
+	 * ArraySort) set by {@link #finish()} method
+	 *
+	 * @return One of the selected sort method constant
+	 */
+	public int getSortMethod() {
+		return result.getSortMethod();
+	}
+
+	/**
+	 * Returns the index of the left element of the swap or the reversal,
+	 * assuming that the sequence is indexed from 1
+	 *
+	 * @return Index of the left most element
+	 */
+	public long getLIndex() {
+		return result.getLeft() + 1;
+	}
+
+	/**
+	 * Returns the index of the right element of the swap or the reversal,
+	 * assuming that the sequence is indexed from 1
+	 *
+	 * @return Index of the right most element
+	 */
+	public long getRIndex() {
+		return result.getRight() + 1;
+	}
+
+	/**
+	 * View of the sequence through its descents, which only compares the
+	 * elements next to the candidates, the only ones kept by the verifier
+	 */
+	private final class Candidates implements DescentView {
+
+		@Override
+		public long length() {
+			return length;
+		}
+
+		@Override
+		public long descentCount() {
+			return count;
+		}
+
+		@Override
+		public long firstDescent() {
+			return first;
+		}
+
+		@Override
+		public long lastDescent() {
+			return last;
+		}
+
+		@Override
+		public boolean isBroken() {
+			return broken;
+		}
+
+		@Override
+		public long left() {
+			return x;
+		}
+
+		@Override
+		public long right() {
+			return y;
+		}
+
+		@Override
+		public int compare(long i, long j) {
+			return Integer.compare(valueAt(i), valueAt(j));
+		}
+
+		/**
+		 * Returns the element at an index next to x or y
+		 *
+		 * @param k
+		 *            Index from x - 1 to x + 1 or from y - 1 to y + 1
+		 * @return The element at index k
+		 */
+		private int valueAt(long k) {
+			if (k == x)
+				return xValue;
+			else if (k == y)
+				return yValue;
+			else if (k == x - 1)
+				return xPrevious;
+			else if (k == x + 1)
+				return xNext;
+			else if (k == y - 1)
+				return yPrevious;
+			else
+				return yNext;
+		}
+	}
+}
@@ -0,0 +1,48 @@
+/**
+ * <p>
+ * This class checks that {@link FactorialQueries#digitSum(int)}, which adds up
+ * the digits as they are streamed, is the sum of the digits of the String
+ * returned by {@link Factorial#getFactorial(int)}, for every number from 0 to
+ * {@link #MAX_NUM}.
+ * </p>
+ * <p>
+ * Run with java DigitSumTest, after compiling with the sources of
+ * Part-01/src. A mismatch is reported with an AssertionError.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see FactorialQueries
+ */
+public class DigitSumTest {
+
+	/**
+	 * Largest number whose factorial is checked
+	 */
+	private static final int MAX_NUM = 3000;
+
+	/**
+	 * Main method, compares both sums for every number of the range
+	 *
+	 * @param args
+	 *            Not used
+	 */
+	public static void main(String[] args) {
+		Factorial fact = new Factorial();
+		FactorialQueries queries = new FactorialQueries(fact);
+
+		for (int n = 0; n <= MAX_NUM; n++) {
+			String digits = fact.getFactorial(n);
+
+			long expected = 0;
+			for (int i = 0; i < digits.length(); i++)
+				expected += digits.charAt(i) - '0';
+
+			long actual = queries.digitSum(n);
+			if (actual != expected)
+				throw new AssertionError("digitSum(" + n + ") is " + actual + ", expected " + expected);
+		}
+
+		System.out.println("digitSum matches getFactorial for 0 to " + MAX_NUM);
+	}
+}
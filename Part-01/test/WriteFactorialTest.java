@@ -0,0 +1,49 @@
+/**
+ * <p>
+ * This class checks that the digits streamed by
+ * {@link Factorial#writeFactorial(int, Appendable)} are the same as the String
+ * returned by {@link Factorial#getFactorial(int)}, for every number from 0 to
+ * {@link #MAX_NUM}. The range covers many factorials whose parts of fewer than
+ * {@link DecimalConverter#LEAF_LIMBS} limbs have close to the largest number
+ * of digits, which are converted in the scratch array of
+ * {@link DecimalConverter}.
+ * </p>
+ * <p>
+ * Run with java WriteFactorialTest, after compiling with the sources of
+ * Part-01/src. A mismatch is reported with an AssertionError.
+ * </p>
+ *
+ * @author Murali
+ * @version 1.0
+ * @see DecimalConverter
+ */
+public class WriteFactorialTest {
+
+	/**
+	 * Largest number whose factorial is checked
+	 */
+	private static final int MAX_NUM = 3000;
+
+	/**
+	 * Main method, compares both conversions for every number of the range
+	 *
+	 * @param args
+	 *            Not used
+	 * @throws Exception
+	 *             If writing the digits fails
+	 */
+	public static void main(String[] args) throws Exception {
+		Factorial fact = new Factorial();
+
+		for (int n = 0; n <= MAX_NUM; n++) {
+			StringBuilder digits = new StringBuilder();
+			fact.writeFactorial(n, digits);
+
+			String expected = fact.getFactorial(n);
+			if (!expected.equals(digits.toString()))
+				throw new AssertionError("writeFactorial(" + n + ") differs from getFactorial(" + n + ")");
+		}
+
+		System.out.println("writeFactorial matches getFactorial for 0 to " + MAX_NUM);
+	}
+}